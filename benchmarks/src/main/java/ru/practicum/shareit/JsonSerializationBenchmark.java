@@ -0,0 +1,81 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies written with an {@link ObjectMapper} configured the way Spring MVC configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"1", "20"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingDto> bookings;
+    private List<ItemDetailedDto> items;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime time = LocalDateTime.now();
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+
+        for (long i = 1; i <= size; i++) {
+            bookings.add(BookingDto.builder()
+                    .id(i)
+                    .start(time)
+                    .end(time.plusDays(1))
+                    .status(BookingStatus.APPROVED)
+                    .item(BookingDto.BookingItemDto.builder().id(i).name("name").build())
+                    .booker(BookingDto.BookingUserDto.builder().id(i).build())
+                    .build());
+            List<CommentDto> comments = new ArrayList<>();
+            for (long j = 1; j <= 3; j++) {
+                comments.add(CommentDto.builder()
+                        .id(j)
+                        .text("text")
+                        .authorName("author")
+                        .createdTime(time)
+                        .build());
+            }
+            items.add(ItemDetailedDto.builder()
+                    .id(i)
+                    .name("name")
+                    .description("description")
+                    .available(Boolean.TRUE)
+                    .lastBooking(new BookingShortDto(i, i, time.minusDays(2), time.minusDays(1)))
+                    .nextBooking(new BookingShortDto(i + 1, i, time.plusDays(1), time.plusDays(2)))
+                    .comments(comments)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBookingDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] writeItemDetailedDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentDtoMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversions that run once per row of every list endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Booking booking;
+    private Item item;
+    private Item requestedItem;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime time = LocalDateTime.now();
+        User owner = new User(1L, "owner", "owner@email.com");
+        User booker = new User(2L, "booker", "booker@email.com");
+        ItemRequest request = new ItemRequest(1L, "description", booker, time);
+
+        item = new Item(1L, "name", "description", Boolean.TRUE, owner, null);
+        requestedItem = new Item(2L, "name", "description", Boolean.TRUE, owner, request);
+        booking = new Booking(1L, time, time.plusDays(1), item, booker, BookingStatus.APPROVED);
+        comment = new Comment(1L, "text", item, booker, time);
+    }
+
+    @Benchmark
+    public BookingDto toBookingDto() {
+        return BookingDtoMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public BookingShortDto toBookingShortDto() {
+        return BookingDtoMapper.toBookingShortDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto toItemDto() {
+        return ItemDtoMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemDto toItemDtoWithRequest() {
+        return ItemDtoMapper.toItemDto(requestedItem);
+    }
+
+    @Benchmark
+    public CommentDto toCommentDto() {
+        return CommentDtoMapper.toCommentDto(comment);
+    }
+}
@@ -0,0 +1,203 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Service calls against the full server context on an in-memory H2 database seeded with
+ * {@value #USERS} users, {@value #ITEMS} items, {@value #BOOKINGS} bookings and {@value #COMMENTS} comments.
+ * Owners and bookers are picked at random on every call, so the second-level cache is as warm as it
+ * would be under real traffic rather than serving a single hot row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int USERS = 1_000;
+    private static final int ITEMS = 10_000;
+    private static final int BOOKINGS = 100_000;
+    private static final int COMMENTS = 20_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+    private ItemService itemService;
+    private UserRepository userRepository;
+    private UserExistenceValidator userExistenceValidator;
+    private TransactionTemplate readOnlyTransaction;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .profiles("ci")
+                .web(WebApplicationType.NONE)
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemService = context.getBean(ItemService.class);
+        userRepository = context.getBean(UserRepository.class);
+        userExistenceValidator = context.getBean(UserExistenceValidator.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        random = new Random(42);
+        seed(context.getBean(JdbcTemplate.class), context.getBean(ItemBookingSummaryService.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> getBookingsByBooker() {
+        return bookingService.getBookingsByBooker(MyPageRequest.of(0, PAGE_SIZE), randomUserId(), "ALL");
+    }
+
+    /**
+     * The booking query of {@link #getBookingsByBooker()} behind the guard it had before
+     * {@link UserExistenceValidator}, which loads the whole {@link User}. Compare with
+     * {@link #getBookingsByBookerWithValidatorGuard()}, which differs only in the guard.
+     */
+    @Benchmark
+    public List<BookingDto> getBookingsByBookerWithFindByIdGuard() {
+        return getBookingsByBooker(userId -> userRepository.findById(userId).orElseThrow());
+    }
+
+    @Benchmark
+    public List<BookingDto> getBookingsByBookerWithValidatorGuard() {
+        return getBookingsByBooker(userExistenceValidator::checkUserExists);
+    }
+
+    @Benchmark
+    public List<BookingDto> getPastBookingsByOwner() {
+        return bookingService.getBookingsByOwner(MyPageRequest.of(0, PAGE_SIZE), randomUserId(), "PAST");
+    }
+
+    @Benchmark
+    public List<BookingDto> getBookingsByBookerWithCursor() {
+        return bookingService.getBookingsByBooker(BookingCursor.FIRST, PAGE_SIZE, randomUserId(), "ALL");
+    }
+
+    @Benchmark
+    public List<ItemDetailedDto> getUserItemsById() {
+        return itemService.getUserItemsById(MyPageRequest.of(0, PAGE_SIZE), randomUserId());
+    }
+
+    @Benchmark
+    public ItemDetailedDto getItemById() {
+        long itemId = random.nextInt(ITEMS) + 1;
+        return itemService.getItemById(itemId, ownerOf(itemId));
+    }
+
+    @Benchmark
+    public User checkUserExistsByFindById() {
+        return userRepository.findById(randomUserId()).orElseThrow();
+    }
+
+    @Benchmark
+    public void checkUserExistsByValidator() {
+        userExistenceValidator.checkUserExists(randomUserId());
+    }
+
+    private List<BookingDto> getBookingsByBooker(Consumer<Long> userGuard) {
+        long userId = randomUserId();
+        return readOnlyTransaction.execute(status -> {
+            userGuard.accept(userId);
+            return bookingRepository.findBookings(MyPageRequest.of(0, PAGE_SIZE), BookingRole.BOOKER, userId,
+                    ru.practicum.shareit.booking.model.State.ALL, BookingCursor.FIRST, LocalDateTime.now());
+        });
+    }
+
+    private long randomUserId() {
+        return random.nextInt(USERS) + 1;
+    }
+
+    private static long ownerOf(long itemId) {
+        return itemId % USERS + 1;
+    }
+
+    /**
+     * Users and items get explicit ids, so that {@link #randomUserId()} and {@link #ownerOf(long)} can address
+     * them; their id sequences, which step by the Hibernate allocation size, are moved past the seeded rows.
+     * Every item gets a revision and every item with an approved booking a booking summary, as the services
+     * would have written them, so item views take the ETag and last/next booking paths.
+     */
+    private void seed(JdbcTemplate jdbcTemplate, ItemBookingSummaryService itemBookingSummaryService) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (long userId = 1; userId <= USERS; userId++) {
+            rows.add(new Object[]{userId, "user" + userId, "user" + userId + "@email.com"});
+        }
+        insert(jdbcTemplate, "INSERT INTO users (user_id, name, email) VALUES (?, ?, ?)", rows);
+
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            rows.add(new Object[]{itemId, "item" + itemId, "description of item " + itemId, Boolean.TRUE,
+                    ownerOf(itemId)});
+        }
+        insert(jdbcTemplate, "INSERT INTO items (item_id, name, description, is_available, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?)", rows);
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+            BookingStatus status = BookingStatus.values()[random.nextInt(BookingStatus.values().length)];
+            rows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1 + random.nextInt(7))),
+                    random.nextInt(ITEMS) + 1, randomUserId(), status.name()});
+        }
+        insert(jdbcTemplate, "INSERT INTO bookings (start_time, end_time, item_id, user_id, status) "
+                + "VALUES (?, ?, ?, ?, ?)", rows);
+
+        jdbcTemplate.update("INSERT INTO item_revisions (item_id, revision) SELECT item_id, 0 FROM items");
+        jdbcTemplate.queryForList("SELECT DISTINCT item_id FROM bookings WHERE status = ?", Long.class,
+                        BookingStatus.APPROVED.name())
+                .forEach(itemBookingSummaryService::refreshSummary);
+
+        for (int i = 0; i < COMMENTS; i++) {
+            rows.add(new Object[]{"comment " + i, random.nextInt(ITEMS) + 1, randomUserId(),
+                    Timestamp.valueOf(now.minusHours(random.nextInt(24 * 365)))});
+        }
+        insert(jdbcTemplate, "INSERT INTO comments (text, item_id, author_id, created_time) VALUES (?, ?, ?, ?)", rows);
+
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (USERS + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE items_seq RESTART WITH " + (ITEMS + 1));
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        rows.clear();
+    }
+}
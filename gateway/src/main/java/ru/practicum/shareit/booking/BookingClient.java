@@ -1,33 +1,39 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.common.ResponseCache;
 
-import java.util.List;
+import java.util.Optional;
 
 @Service
 public class BookingClient {
     private static final String USER_HEADER = "X-Sharer-User-Id";
     private final WebClient client;
+    private final ResponseCache responseCache;
 
-    public BookingClient(@Value("${shareit-server.url}") String url) {
-        this.client = WebClient.create(url);
+    public BookingClient(WebClient shareItServerWebClient, ResponseCache responseCache) {
+        this.client = shareItServerWebClient;
+        this.responseCache = responseCache;
     }
 
-    public BookingDto addBooking(Long userId, BookingDtoFromRequest bookingDtoFromRequest) {
+    public Mono<BookingDto> addBooking(Long userId, BookingDtoFromRequest bookingDtoFromRequest) {
         return client.post()
                 .uri("/bookings")
                 .header(USER_HEADER, userId.toString())
                 .bodyValue(bookingDtoFromRequest)
                 .retrieve()
-                .bodyToMono(BookingDto.class)
-                .block();
+                .bodyToMono(BookingDto.class);
     }
 
-    public BookingDto bookingConfirmation(Long userId, Long bookingId, Boolean approved) {
+    public Mono<BookingDto> bookingConfirmation(Long userId, Long bookingId, Boolean approved) {
         return client.patch()
                 .uri(uriBuilder -> uriBuilder.path("/bookings/" + bookingId)
                         .queryParam("approved", approved.toString())
@@ -35,44 +41,75 @@ public class BookingClient {
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
                 .bodyToMono(BookingDto.class)
-                .block();
+                .doOnSuccess(this::evictItem);
     }
 
-    public BookingDto getBookingById(Long userId, Long bookingId) {
+    public Mono<BookingDto> getBookingById(Long userId, Long bookingId) {
         return client
                 .get()
                 .uri("/bookings/{bookingId}", bookingId)
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
-                .bodyToMono(BookingDto.class)
-                .block();
+                .bodyToMono(BookingDto.class);
     }
 
-    public List<BookingDto> getBookingsByBooker(Integer from, Integer size, Long userId, String state) {
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByBooker(Integer from, Integer size, Long userId,
+                                                                   String state, String cursor) {
         return client.get()
                 .uri(uriBuilder -> uriBuilder.path("/bookings")
                         .queryParam("state", state)
                         .queryParam("from", from)
                         .queryParam("size", size)
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
                         .build())
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
-                .bodyToFlux(BookingDto.class)
-                .collectList()
-                .block();
+                .toEntityFlux(BookingDto.class);
     }
 
-    public List<BookingDto> getBookingsByOwner(Integer from, Integer size, Long userId, String state) {
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByOwner(Integer from, Integer size, Long userId,
+                                                                   String state, String cursor) {
         return client.get()
                 .uri(uriBuilder -> uriBuilder.path("/bookings/owner")
                         .queryParam("state", state)
                         .queryParam("from", from)
                         .queryParam("size", size)
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                        .build())
+                .header(USER_HEADER, userId.toString())
+                .retrieve()
+                .toEntityFlux(BookingDto.class);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByBooker(Long userId, BookingExportFormat format) {
+        return exportBookings("/bookings/export", userId, format);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByOwner(Long userId, BookingExportFormat format) {
+        return exportBookings("/bookings/owner/export", userId, format);
+    }
+
+    /**
+     * An approved booking may become the last or next booking the owner sees on the item.
+     */
+    private void evictItem(BookingDto booking) {
+        if (booking != null && booking.getItem() != null) {
+            responseCache.evict(ResponseCache.ITEMS, booking.getItem().getId());
+        }
+    }
+
+    /**
+     * The export is relayed as raw buffers: nothing is decoded, and each buffer is requested from the server
+     * only once the client has taken the previous ones.
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> exportBookings(String path, Long userId,
+                                                                  BookingExportFormat format) {
+        return client.get()
+                .uri(uriBuilder -> uriBuilder.path(path)
+                        .queryParam("format", format)
                         .build())
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
-                .bodyToFlux(BookingDto.class)
-                .collectList()
-                .block();
+                .toEntityFlux(DataBuffer.class);
     }
 }
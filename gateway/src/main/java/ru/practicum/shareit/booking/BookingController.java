@@ -1,17 +1,22 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.validation.annotation.StateEnum;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * TODO Sprint add-bookings.
@@ -23,44 +28,85 @@ import java.util.List;
 public class BookingController {
     private final BookingClient bookingClient;
     private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public BookingDto addBooking(@RequestHeader(USER_HEADER) Long userId,
-                                 @Valid @RequestBody BookingDtoFromRequest bookingDtoFromRequest) {
+    public Mono<BookingDto> addBooking(@RequestHeader(USER_HEADER) Long userId,
+                                       @Valid @RequestBody BookingDtoFromRequest bookingDtoFromRequest) {
         return bookingClient.addBooking(userId, bookingDtoFromRequest);
     }
 
     @ResponseStatus(HttpStatus.OK)
     @PatchMapping("/{bookingId}")
-    public BookingDto bookingConfirmation(@RequestHeader(USER_HEADER) Long userId,
-                                          @PathVariable Long bookingId,
-                                          @RequestParam Boolean approved) {
+    public Mono<BookingDto> bookingConfirmation(@RequestHeader(USER_HEADER) Long userId,
+                                                @PathVariable Long bookingId,
+                                                @RequestParam Boolean approved) {
         return bookingClient.bookingConfirmation(userId, bookingId, approved);
     }
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/{bookingId}")
-    public BookingDto getBookingById(@RequestHeader(USER_HEADER) Long userId,
-                                     @PathVariable Long bookingId) {
+    public Mono<BookingDto> getBookingById(@RequestHeader(USER_HEADER) Long userId,
+                                           @PathVariable Long bookingId) {
         return bookingClient.getBookingById(userId, bookingId);
     }
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping
-    public List<BookingDto> getBookingsByBooker(@RequestHeader(USER_HEADER) Long userId,
-                                                @RequestParam(defaultValue = "ALL", required = false) @StateEnum String state,
-                                                @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
-                                                @RequestParam(required = false, defaultValue = "20") @Positive int size) {
-        return bookingClient.getBookingsByBooker(from, size, userId, state);
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByBooker(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) @StateEnum String state,
+            @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false, defaultValue = "20") @Positive int size,
+            @RequestParam(required = false) String cursor) {
+        return bookingClient.getBookingsByBooker(from, size, userId, state, cursor)
+                .map(this::withNextCursor);
     }
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader(USER_HEADER) Long userId,
-                                               @RequestParam(defaultValue = "ALL", required = false) @StateEnum String state,
-                                               @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
-                                               @RequestParam(required = false, defaultValue = "20") @Positive int size) {
-        return bookingClient.getBookingsByOwner(from, size, userId, state);
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByOwner(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) @StateEnum String state,
+            @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false, defaultValue = "20") @Positive int size,
+            @RequestParam(required = false) String cursor) {
+        return bookingClient.getBookingsByOwner(from, size, userId, state, cursor)
+                .map(this::withNextCursor);
+    }
+
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByBooker(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestParam(defaultValue = "NDJSON", required = false) BookingExportFormat format) {
+        return bookingClient.exportBookingsByBooker(userId, format)
+                .map(this::withContentType);
+    }
+
+    @GetMapping("/owner/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsByOwner(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestParam(defaultValue = "NDJSON", required = false) BookingExportFormat format) {
+        return bookingClient.exportBookingsByOwner(userId, format)
+                .map(this::withContentType);
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> withContentType(ResponseEntity<Flux<DataBuffer>> response) {
+        return ResponseEntity.ok()
+                .contentType(Objects.requireNonNull(response.getHeaders().getContentType()))
+                .body(response.getBody());
+    }
+
+    /**
+     * Only the cursor header is carried over; the rest belong to the gateway-to-server exchange.
+     */
+    private ResponseEntity<Flux<BookingDto>> withNextCursor(ResponseEntity<Flux<BookingDto>> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        String nextCursor = response.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder.body(response.getBody());
     }
 }
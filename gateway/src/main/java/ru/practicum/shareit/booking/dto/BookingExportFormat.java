@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.dto;
+
+public enum BookingExportFormat {
+    NDJSON, CSV
+}
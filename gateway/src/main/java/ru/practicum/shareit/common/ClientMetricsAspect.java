@@ -0,0 +1,58 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every call a {@code *Client} makes to shareit-server as {@code shareit.client.requests}, tagged with
+ * the client and its method. The timer runs from subscription to the terminal signal, so for calls that return
+ * a {@code ResponseEntity<Flux>} it covers the server's response headers, not the streamed body. Answers served
+ * by {@link ResponseCache} are timed as well.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ClientMetricsAspect {
+    static final String METRIC_NAME = "shareit.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(ru.practicum.shareit..*Client) && execution(public reactor.core.publisher.Mono *(..))")
+    public Mono<?> timeMono(ProceedingJoinPoint joinPoint) throws Throwable {
+        Mono<?> call = (Mono<?>) joinPoint.proceed();
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doOnSuccess(value -> stop(sample, joinPoint, "SUCCESS", "none"))
+                    .doOnError(e -> stop(sample, joinPoint, "ERROR", e.getClass().getSimpleName()))
+                    .doOnCancel(() -> stop(sample, joinPoint, "CANCELLED", "none"));
+        });
+    }
+
+    @Around("within(ru.practicum.shareit..*Client) && execution(public reactor.core.publisher.Flux *(..))")
+    public Flux<?> timeFlux(ProceedingJoinPoint joinPoint) throws Throwable {
+        Flux<?> call = (Flux<?>) joinPoint.proceed();
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doOnComplete(() -> stop(sample, joinPoint, "SUCCESS", "none"))
+                    .doOnError(e -> stop(sample, joinPoint, "ERROR", e.getClass().getSimpleName()))
+                    .doOnCancel(() -> stop(sample, joinPoint, "CANCELLED", "none"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, ProceedingJoinPoint joinPoint, String outcome, String exception) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Calls from the gateway to shareit-server")
+                .tag("client", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Helpers for conditional GETs that the gateway passes through to shareit-server. The server owns the ETags:
+ * the gateway either forwards {@code If-None-Match} untouched and relays the status, {@code ETag} and
+ * {@code Vary} of the answer, or checks it against a response it has cached.
+ */
+public final class ConditionalResponses {
+    private static final List<String> RELAYED_HEADERS = List.of(HttpHeaders.ETAG, HttpHeaders.VARY);
+
+    private ConditionalResponses() {
+    }
+
+    public static void setIfNoneMatch(HttpHeaders headers, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+    }
+
+    /**
+     * Answers {@code If-None-Match} from a cached response: a matching ETag turns it into a 304 without a body.
+     */
+    public static <T> ResponseEntity<T> evaluate(ResponseEntity<T> response, String ifNoneMatch) {
+        String eTag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || eTag == null || response.getStatusCode() != HttpStatus.OK
+                || !matches(ifNoneMatch, eTag)) {
+            return response;
+        }
+        return new ResponseEntity<>(response.getHeaders(), HttpStatus.NOT_MODIFIED);
+    }
+
+    public static <T> ResponseEntity<T> relay(ResponseEntity<T> serverResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String header : RELAYED_HEADERS) {
+            List<String> values = serverResponse.getHeaders().get(header);
+            if (values != null) {
+                headers.addAll(header, values);
+            }
+        }
+        return new ResponseEntity<>(serverResponse.getBody(), headers, serverResponse.getStatusCode());
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        String opaqueTag = withoutWeakPrefix(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || withoutWeakPrefix(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String withoutWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
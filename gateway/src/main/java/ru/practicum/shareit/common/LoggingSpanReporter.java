@@ -0,0 +1,20 @@
+package ru.practicum.shareit.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.sleuth.exporter.FinishedSpan;
+import org.springframework.cloud.sleuth.exporter.SpanReporter;
+
+/**
+ * Writes every finished span to the log, for looking at traces locally without a tracing backend.
+ * Span timestamps are epoch microseconds.
+ */
+@Slf4j
+public class LoggingSpanReporter implements SpanReporter {
+    @Override
+    public void report(FinishedSpan span) {
+        log.info("span {} trace={} id={} parent={} kind={} took {} us{}", span.getName(), span.getTraceId(),
+                span.getSpanId(), span.getParentId(), span.getKind(),
+                span.getEndTimestamp() - span.getStartTimestamp(),
+                span.getError() == null ? "" : " error=" + span.getError());
+    }
+}
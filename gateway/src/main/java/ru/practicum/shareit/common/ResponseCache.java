@@ -0,0 +1,81 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of shareit-server answers to idempotent GETs, split into regions sized and timed by
+ * {@link ResponseCacheProperties}. Concurrent misses of one key share a single request to the server and
+ * failed requests are not cached. A region without settings, or a disabled cache, passes every call through.
+ * <p>
+ * The {@code *Client} classes evict entries when they forward a write that changes them. The first element of
+ * a key is the id of the resource, so {@link #evict} drops the entries of every user at once.
+ */
+public class ResponseCache {
+    public static final String ITEMS = "items";
+    public static final String USERS = "users";
+    public static final String ITEM_REQUESTS = "item-requests";
+    public static final String ITEM_REQUEST_PAGES = "item-request-pages";
+
+    private final Map<String, AsyncCache<List<?>, Object>> regions = new HashMap<>();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        properties.getRegions().forEach((name, region) -> regions.put(name, Caffeine.newBuilder()
+                .maximumSize(region.getMaxSize())
+                .expireAfterWrite(region.getTtl())
+                .buildAsync()));
+    }
+
+    public static List<?> key(Object... parts) {
+        return List.of(parts);
+    }
+
+    public boolean isEnabled(String region) {
+        return regions.containsKey(region);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String region, List<?> key, Supplier<Mono<T>> loader) {
+        AsyncCache<List<?>, Object> cache = regions.get(region);
+        if (cache == null) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            CompletableFuture<Object> response = cache.get(key, (k, executor) -> loader.get()
+                    .cast(Object.class)
+                    .toFuture());
+            // A dependent future: a caller that goes away cancels its own wait, not the request others share.
+            return Mono.fromFuture(response.thenApply(value -> (T) value));
+        });
+    }
+
+    /**
+     * Drops the entries of the resource with the given id, including a request to the server still in flight,
+     * so its answer is not cached.
+     */
+    public void evict(String region, Object id) {
+        AsyncCache<List<?>, Object> cache = regions.get(region);
+        if (cache != null) {
+            cache.asMap().keySet().removeIf(key -> key.get(0).equals(id));
+        }
+    }
+
+    public void evictAll(String... regionNames) {
+        for (String region : regionNames) {
+            AsyncCache<List<?>, Object> cache = regions.get(region);
+            if (cache != null) {
+                cache.asMap().clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties) {
+        return new ResponseCache(properties);
+    }
+}
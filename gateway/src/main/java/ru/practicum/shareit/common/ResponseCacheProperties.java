@@ -0,0 +1,28 @@
+package ru.practicum.shareit.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size and time-to-live of the gateway response cache regions, keyed by the region names in {@link ResponseCache}.
+ * TTLs are kept short: a write forwarded by another gateway instance is only noticed when they run out.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private Map<String, Region> regions = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.common;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties(ShareItServerProperties.class)
+public class ShareItServerClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(ShareItServerProperties properties) {
+        ShareItServerProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(pool.isMetricsEnabled())
+                .build();
+    }
+
+    @Bean
+    public WebClient shareItServerWebClient(WebClient.Builder builder,
+                                            ConnectionProvider shareItServerConnectionProvider,
+                                            ShareItServerProperties properties) {
+        return builder
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(
+                        shareItServerHttpClient(shareItServerConnectionProvider, properties)))
+                .build();
+    }
+
+    /**
+     * Not a bean: tracing instruments HttpClient beans on top of the WebClient, which would give every call
+     * a second client span.
+     */
+    private static HttpClient shareItServerHttpClient(ConnectionProvider connectionProvider,
+                                                      ShareItServerProperties properties) {
+        return HttpClient.create(connectionProvider)
+                .protocol(properties.getProtocols().toArray(HttpProtocol[]::new))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .keepAlive(true);
+    }
+}
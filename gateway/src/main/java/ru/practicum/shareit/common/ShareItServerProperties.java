@@ -0,0 +1,38 @@
+package ru.practicum.shareit.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the gateway → shareit-server hop shared by all {@code *Client} classes.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server")
+public class ShareItServerProperties {
+    private String url;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(10);
+    private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+    private final Pool pool = new Pool();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maxConnections = 500;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        /**
+         * Kept below the server's keep-alive timeout so the gateway never picks a connection the server has closed.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(15);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        private boolean metricsEnabled = true;
+    }
+}
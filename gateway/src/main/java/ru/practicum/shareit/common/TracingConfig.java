@@ -0,0 +1,22 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.sleuth.exporter.SpanReporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Traces start at the gateway. Sleuth samples a request with probability
+ * {@code spring.sleuth.sampler.probability}, and the
+ * {@link org.springframework.web.reactive.function.client.WebClient} calls to shareit-server carry the trace
+ * context, sampling decision included, in B3 headers, so the server continues the same trace and records only
+ * what the gateway sampled.
+ */
+@Configuration
+public class TracingConfig {
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.tracing.log", name = "enabled", havingValue = "true")
+    public SpanReporter loggingSpanReporter() {
+        return new LoggingSpanReporter();
+    }
+}
@@ -3,12 +3,12 @@ package ru.practicum.shareit.exception;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.MethodArgumentNotValidException;
-import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebInputException;
 import ru.practicum.shareit.booking.validation.IncorrectBookingTimeException;
 
 import javax.validation.ConstraintDeclarationException;
@@ -16,10 +16,10 @@ import javax.validation.ConstraintDeclarationException;
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
-    @ExceptionHandler(MissingRequestHeaderException.class)
+    @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse missingRequestHeaderExceptionHandler(final MissingRequestHeaderException e) {
-        return new ErrorResponse("Missing request header error: ", e.getMessage());
+    public ErrorResponse serverWebInputExceptionHandler(final ServerWebInputException e) {
+        return new ErrorResponse("Request input error: ", e.getMessage());
     }
 
     @ExceptionHandler
@@ -30,7 +30,7 @@ public class ErrorHandler {
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse methodArgumentNotValidExceptionHandler(final MethodArgumentNotValidException e) {
+    public ErrorResponse webExchangeBindExceptionHandler(final WebExchangeBindException e) {
         return new ErrorResponse("Not valid method argument: ", e.getMessage());
     }
 
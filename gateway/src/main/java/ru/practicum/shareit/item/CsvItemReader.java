@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.web.server.ServerWebInputException;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps CSV lines to items by the column names of the header line. Quoted fields may contain commas and
+ * doubled quotes but not line breaks, so every line of the file is a row of its own.
+ */
+class CsvItemReader {
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "available");
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    CsvItemReader(String header) {
+        List<String> names;
+        try {
+            names = split(header.charAt(0) == BYTE_ORDER_MARK ? header.substring(1) : header);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("CSV header: " + e.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new ServerWebInputException(String.format("CSV header must contain the columns %s and may "
+                    + "contain requestId, got %s", REQUIRED_COLUMNS, names));
+        }
+    }
+
+    ItemDtoFromRequest read(String line) {
+        List<String> values = split(line);
+        return new ItemDtoFromRequest(value(values, "name"),
+                value(values, "description"),
+                toBoolean(value(values, "available")),
+                toLong(value(values, "requestId")));
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private static Boolean toBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (Boolean.TRUE.toString().equalsIgnoreCase(value.trim())) {
+            return Boolean.TRUE;
+        }
+        if (Boolean.FALSE.toString().equalsIgnoreCase(value.trim())) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("available: must be true or false");
+    }
+
+    private static Long toLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("requestId: must be a number");
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                value.append(c);
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
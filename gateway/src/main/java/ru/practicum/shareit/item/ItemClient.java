@@ -1,61 +1,103 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+import ru.practicum.shareit.common.ConditionalResponses;
+import ru.practicum.shareit.common.ResponseCache;
 import ru.practicum.shareit.item.dto.*;
 
 import java.util.Comparator;
-import java.util.List;
 
 @Service
 public class ItemClient {
     private static final String USER_HEADER = "X-Sharer-User-Id";
     private final WebClient client;
+    private final ItemImportProperties importProperties;
+    private final ResponseCache responseCache;
 
-    public ItemClient(@Value("${shareit-server.url}") String url) {
-        this.client = WebClient.create(url);
+    public ItemClient(WebClient shareItServerWebClient, ItemImportProperties importProperties,
+                      ResponseCache responseCache) {
+        this.client = shareItServerWebClient;
+        this.importProperties = importProperties;
+        this.responseCache = responseCache;
     }
 
-    public ItemDto saveItem(ItemDtoFromRequest itemDto, Long userId) {
+    public Mono<ItemDto> saveItem(ItemDtoFromRequest itemDto, Long userId) {
         return client.post()
                 .uri("/items")
                 .header(USER_HEADER, userId.toString())
                 .bodyValue(itemDto)
                 .retrieve()
                 .bodyToMono(ItemDto.class)
-                .block();
+                .doOnSuccess(this::evictRequest);
     }
 
-    public ItemDto updateItem(ItemDtoFromRequest itemDto, Long itemId, Long userId) {
+    public Mono<ItemImportReport> importItems(Flux<ItemImportRow> rows, Long userId) {
+        return client.post()
+                .uri("/items/import")
+                .header(USER_HEADER, userId.toString())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                        .responseTimeout(importProperties.getResponseTimeout()))
+                .body(rows, ItemImportRow.class)
+                .retrieve()
+                .bodyToMono(ItemImportReport.class)
+                .doOnTerminate(() -> responseCache.evictAll(ResponseCache.ITEM_REQUESTS,
+                        ResponseCache.ITEM_REQUEST_PAGES));
+    }
+
+    public Mono<ItemDto> updateItem(ItemDtoFromRequest itemDto, Long itemId, Long userId) {
         return client.patch()
                 .uri("/items/{itemId}", itemId)
                 .header(USER_HEADER, userId.toString())
                 .bodyValue(itemDto)
                 .retrieve()
                 .bodyToMono(ItemDto.class)
-                .block();
+                .doOnTerminate(() -> responseCache.evict(ResponseCache.ITEMS, itemId))
+                .doOnSuccess(this::evictRequest);
     }
 
-    public void deleteItem(Long itemId) {
-        client.delete()
+    public Mono<Void> deleteItem(Long itemId) {
+        return client.delete()
                 .uri("/items/{itemId}", itemId)
                 .retrieve()
-                .toBodilessEntity()
-                .block();
+                .bodyToMono(Void.class)
+                .doOnTerminate(() -> {
+                    responseCache.evict(ResponseCache.ITEMS, itemId);
+                    responseCache.evictAll(ResponseCache.ITEM_REQUESTS, ResponseCache.ITEM_REQUEST_PAGES);
+                });
     }
 
-    public ItemDetailedDto getItemById(Long itemId, Long userId) {
+    /**
+     * The owner sees bookings that other users do not, so cached answers are kept per user. A cached answer
+     * is fetched without {@code If-None-Match} and the condition is checked against it here instead.
+     */
+    public Mono<ResponseEntity<ItemDetailedDto>> getItemById(Long itemId, Long userId, String ifNoneMatch) {
+        if (!responseCache.isEnabled(ResponseCache.ITEMS)) {
+            return fetchItemById(itemId, userId, ifNoneMatch);
+        }
+        return responseCache.get(ResponseCache.ITEMS, ResponseCache.key(itemId, userId),
+                        () -> fetchItemById(itemId, userId, null))
+                .map(response -> ConditionalResponses.evaluate(response, ifNoneMatch));
+    }
+
+    private Mono<ResponseEntity<ItemDetailedDto>> fetchItemById(Long itemId, Long userId, String ifNoneMatch) {
         return client
                 .get()
                 .uri("/items/{itemId}", itemId)
                 .header(USER_HEADER, userId.toString())
+                .headers(headers -> ConditionalResponses.setIfNoneMatch(headers, ifNoneMatch))
                 .retrieve()
-                .bodyToMono(ItemDetailedDto.class)
-                .block();
+                .toEntity(ItemDetailedDto.class)
+                .map(ConditionalResponses::relay);
     }
 
-    public List<ItemDetailedDto> getUserItemsById(Integer from, Integer size, Long userId) {
+    public Flux<ItemDetailedDto> getUserItemsById(Integer from, Integer size, Long userId) {
         return client.get()
                 .uri(uriBuilder -> uriBuilder.path("/items")
                         .queryParam("from", from)
@@ -64,12 +106,10 @@ public class ItemClient {
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
                 .bodyToFlux(ItemDetailedDto.class)
-                .sort(Comparator.comparingLong(ItemDetailedDto::getId))
-                .collectList()
-                .block();
+                .sort(Comparator.comparingLong(ItemDetailedDto::getId));
     }
 
-    public List<ItemDto> getUserItemByText(Integer from, Integer size, Long userId, String text) {
+    public Flux<ItemDto> getUserItemByText(Integer from, Integer size, Long userId, String text) {
         return client.get()
                 .uri(uriBuilder -> uriBuilder.path("/items/search")
                         .queryParam("from", from)
@@ -78,18 +118,23 @@ public class ItemClient {
                         .build())
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
-                .bodyToFlux(ItemDto.class)
-                .collectList()
-                .block();
+                .bodyToFlux(ItemDto.class);
     }
 
-    public CommentDto addCommentToItem(Long ownerId, Long itemId, CommentDtoFromRequest commentDto) {
+    public Mono<CommentDto> addCommentToItem(Long ownerId, Long itemId, CommentDtoFromRequest commentDto) {
         return client.post()
                 .uri("/items/{itemId}/comment", itemId)
                 .header(USER_HEADER, ownerId.toString())
                 .bodyValue(commentDto)
                 .retrieve()
                 .bodyToMono(CommentDto.class)
-                .block();
+                .doOnTerminate(() -> responseCache.evict(ResponseCache.ITEMS, itemId));
+    }
+
+    private void evictRequest(ItemDto item) {
+        if (item != null && item.getRequestId() != null) {
+            responseCache.evict(ResponseCache.ITEM_REQUESTS, item.getRequestId());
+            responseCache.evictAll(ResponseCache.ITEM_REQUEST_PAGES);
+        }
     }
 }
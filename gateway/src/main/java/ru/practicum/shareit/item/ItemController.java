@@ -2,15 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
@@ -22,43 +26,62 @@ import java.util.List;
 @Validated
 public class ItemController {
     private final ItemClient itemClient;
+    private final ItemImporter itemImporter;
     private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String TEXT_CSV_VALUE = "text/csv";
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ItemDto saveItem(@RequestHeader(USER_HEADER) Long ownerId,
-                            @Valid @RequestBody ItemDtoFromRequest itemDto) {
+    public Mono<ItemDto> saveItem(@RequestHeader(USER_HEADER) Long ownerId,
+                                  @Valid @RequestBody ItemDtoFromRequest itemDto) {
         log.info("the item has been saved");
         return itemClient.saveItem(itemDto, ownerId);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ItemImportReport> importItemsFromNdjson(@RequestHeader(USER_HEADER) Long ownerId,
+                                                        @RequestBody Flux<String> lines) {
+        log.info("the items import from NDJSON has been started");
+        return itemImporter.importNdjson(lines, ownerId);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ItemImportReport> importItemsFromCsv(@RequestHeader(USER_HEADER) Long ownerId,
+                                                     @RequestBody Flux<String> lines) {
+        log.info("the items import from CSV has been started");
+        return itemImporter.importCsv(lines, ownerId);
+    }
+
     @PatchMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ItemDto updateItem(@RequestHeader(USER_HEADER) Long ownerId,
-                              @RequestBody ItemDtoFromRequest itemDto,
-                              @PathVariable Long itemId) {
+    public Mono<ItemDto> updateItem(@RequestHeader(USER_HEADER) Long ownerId,
+                                    @RequestBody ItemDtoFromRequest itemDto,
+                                    @PathVariable Long itemId) {
         log.info("the item with id={} has been saved", itemId);
         return itemClient.updateItem(itemDto, itemId, ownerId);
     }
 
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteItem(@PathVariable Long itemId) {
+    public Mono<Void> deleteItem(@PathVariable Long itemId) {
         log.info("the item with id={} has been deleted", itemId);
-        itemClient.deleteItem(itemId);
+        return itemClient.deleteItem(itemId);
     }
 
     @GetMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemDetailedDto findItemById(@RequestHeader(USER_HEADER) Long userId,
-                                        @PathVariable Long itemId) {
+    public Mono<ResponseEntity<ItemDetailedDto>> findItemById(@RequestHeader(USER_HEADER) Long userId,
+                                                              @PathVariable Long itemId,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                      required = false) String ifNoneMatch) {
         log.info("the item with id={} has been got", itemId);
-        return itemClient.getItemById(itemId, userId);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDetailedDto> getUserItemsById(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+    public Flux<ItemDetailedDto> getUserItemsById(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
                                                   @RequestParam(required = false, defaultValue = "10") @Positive int size,
                                                   @RequestHeader(USER_HEADER) Long ownerId) {
         log.info("the user item's has been got");
@@ -67,7 +90,7 @@ public class ItemController {
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDto> getUserItemByText(@RequestHeader(USER_HEADER) Long ownerId,
+    public Flux<ItemDto> getUserItemByText(@RequestHeader(USER_HEADER) Long ownerId,
                                            @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
                                            @RequestParam(required = false, defaultValue = "10") @Positive int size,
                                            @RequestParam String text) {
@@ -77,9 +100,9 @@ public class ItemController {
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.OK)
-    public CommentDto addCommentToItem(@RequestHeader(USER_HEADER) Long ownerId,
-                                       @PathVariable Long itemId,
-                                       @RequestBody @Valid CommentDtoFromRequest commentDto) {
+    public Mono<CommentDto> addCommentToItem(@RequestHeader(USER_HEADER) Long ownerId,
+                                             @PathVariable Long itemId,
+                                             @RequestBody @Valid CommentDtoFromRequest commentDto) {
         log.info("comment to item with id={} added", itemId);
         return itemClient.addCommentToItem(ownerId, itemId, commentDto);
     }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.item-import")
+public class ItemImportProperties {
+    private int maxReportedErrors = 1000;
+    /**
+     * Replaces {@code shareit-server.response-timeout} for imports: the server answers only after the last batch.
+     */
+    private Duration responseTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+
+import javax.validation.Validator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns an uploaded file into a stream of validated rows for shareit-server. The upload is read line by line
+ * as it arrives and every row is forwarded as soon as it is checked, so neither the file nor the rows are
+ * ever held in memory; rows that fail the {@link ItemDtoFromRequest} constraints are reported and dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemImporter {
+    private final ItemClient itemClient;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ItemImportProperties properties;
+
+    public Mono<ItemImportReport> importNdjson(Flux<String> lines, Long ownerId) {
+        return importRows(numbered(lines), this::readJson, ownerId);
+    }
+
+    public Mono<ItemImportReport> importCsv(Flux<String> lines, Long ownerId) {
+        return numbered(lines)
+                .switchOnFirst((header, rows) -> {
+                    if (!header.hasValue()) {
+                        return rows.then(Mono.just(new ItemImportReport()));
+                    }
+                    CsvItemReader reader = new CsvItemReader(header.get().getT2());
+                    return importRows(rows.skip(1), reader::read, ownerId);
+                })
+                .next();
+    }
+
+    private Flux<Tuple2<Long, String>> numbered(Flux<String> lines) {
+        return lines.index((index, line) -> Tuples.of(index + 1, line))
+                .filter(line -> !line.getT2().isBlank());
+    }
+
+    private Mono<ItemImportReport> importRows(Flux<Tuple2<Long, String>> lines,
+                                              Function<String, ItemDtoFromRequest> reader, Long ownerId) {
+        return Mono.defer(() -> {
+            ItemImportReport report = new ItemImportReport();
+            Flux<ItemImportRow> rows = lines.handle((line, sink) -> {
+                try {
+                    ItemDtoFromRequest item = reader.apply(line.getT2());
+                    String violations = validate(item);
+                    if (violations.isEmpty()) {
+                        sink.next(new ItemImportRow(line.getT1(), item));
+                    } else {
+                        reject(report, line.getT1(), violations);
+                    }
+                } catch (IllegalArgumentException e) {
+                    reject(report, line.getT1(), e.getMessage());
+                }
+            });
+            return itemClient.importItems(rows, ownerId)
+                    .map(serverReport -> report.merge(serverReport, properties.getMaxReportedErrors()));
+        });
+    }
+
+    private ItemDtoFromRequest readJson(String line) {
+        try {
+            return objectMapper.readValue(line, ItemDtoFromRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed row: " + e.getOriginalMessage());
+        }
+    }
+
+    private String validate(ItemDtoFromRequest item) {
+        if (item == null) {
+            return "item is missing";
+        }
+        return validator.validate(item).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reject(ItemImportReport report, long line, String message) {
+        report.addError(new ItemImportError(line, message), properties.getMaxReportedErrors());
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemImportError {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Outcome of a bulk import. {@code failed} counts every rejected row, while {@code errors} keeps only
+ * the first ones so the report stays small whatever the size of the upload.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemImportReport {
+    private long imported;
+    private long failed;
+    private List<ItemImportError> errors = new ArrayList<>();
+
+    public void addError(ItemImportError error, int maxReportedErrors) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Adds the rows shareit-server imported or rejected to the ones rejected here, keeping errors in file order.
+     */
+    public ItemImportReport merge(ItemImportReport serverReport, int maxReportedErrors) {
+        imported += serverReport.getImported();
+        failed += serverReport.getFailed();
+        errors = Stream.concat(errors.stream(), serverReport.getErrors().stream())
+                .sorted(Comparator.comparingLong(ItemImportError::getLine))
+                .limit(maxReportedErrors)
+                .collect(Collectors.toList());
+        return this;
+    }
+}
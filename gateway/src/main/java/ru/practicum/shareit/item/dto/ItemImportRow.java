@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+/**
+ * One NDJSON line sent to shareit-server: a validated item and the line it came from in the uploaded file.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemImportRow {
+    private Long line;
+    private ItemDtoFromRequest item;
+}
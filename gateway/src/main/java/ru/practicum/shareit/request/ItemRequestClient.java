@@ -1,62 +1,85 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.common.ConditionalResponses;
+import ru.practicum.shareit.common.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
-import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class ItemRequestClient {
     private static final String USER_HEADER = "X-Sharer-User-Id";
     private final WebClient client;
+    private final ResponseCache responseCache;
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String url) {
-        this.client = WebClient.create(url);
+    public ItemRequestClient(WebClient shareItServerWebClient, ResponseCache responseCache) {
+        this.client = shareItServerWebClient;
+        this.responseCache = responseCache;
     }
 
-    public ItemRequestDto getRequestById(Long requestId, Long userId) {
+    /**
+     * The answer is the same for every user, but the server rejects unknown ones, so it is cached per user too.
+     */
+    public Mono<ResponseEntity<ItemRequestDto>> getRequestById(Long requestId, Long userId, String ifNoneMatch) {
+        if (!responseCache.isEnabled(ResponseCache.ITEM_REQUESTS)) {
+            return fetchRequestById(requestId, userId, ifNoneMatch);
+        }
+        return responseCache.get(ResponseCache.ITEM_REQUESTS, ResponseCache.key(requestId, userId),
+                        () -> fetchRequestById(requestId, userId, null))
+                .map(response -> ConditionalResponses.evaluate(response, ifNoneMatch));
+    }
+
+    private Mono<ResponseEntity<ItemRequestDto>> fetchRequestById(Long requestId, Long userId,
+                                                                  String ifNoneMatch) {
         return client
                 .get()
                 .uri("/requests/{requestId}", requestId)
                 .header(USER_HEADER, userId.toString())
+                .headers(headers -> ConditionalResponses.setIfNoneMatch(headers, ifNoneMatch))
                 .retrieve()
-                .bodyToMono(ItemRequestDto.class)
-                .block();
+                .toEntity(ItemRequestDto.class)
+                .map(ConditionalResponses::relay);
     }
 
-    public List<ItemRequestDto> getUserRequest(Long userId) {
+    public Flux<ItemRequestDto> getUserRequest(Long userId) {
         return client.get()
                 .uri("/requests")
                 .header(USER_HEADER, userId.toString())
                 .retrieve()
-                .bodyToFlux(ItemRequestDto.class)
-                .collectList()
-                .block();
+                .bodyToFlux(ItemRequestDto.class);
     }
 
-    public List<ItemRequestDto> getAllRequests(Integer from, Integer size, Long userId) {
-        return client.get()
-                .uri(uriBuilder -> uriBuilder.path("/requests/all")
-                        .queryParam("from", from)
-                        .queryParam("size", size)
-                        .build())
-                .header(USER_HEADER, userId.toString())
-                .retrieve()
-                .bodyToFlux(ItemRequestDto.class)
-                .collectList()
-                .block();
+    /**
+     * A page lists the requests of everyone but the user, so any new request may change it; all pages are
+     * dropped whenever this gateway forwards one.
+     */
+    public Flux<ItemRequestDto> getAllRequests(Integer from, Integer size, Long userId) {
+        return responseCache.get(ResponseCache.ITEM_REQUEST_PAGES, ResponseCache.key(userId, from, size),
+                        () -> client.get()
+                                .uri(uriBuilder -> uriBuilder.path("/requests/all")
+                                        .queryParam("from", from)
+                                        .queryParam("size", size)
+                                        .build())
+                                .header(USER_HEADER, userId.toString())
+                                .retrieve()
+                                .bodyToFlux(ItemRequestDto.class)
+                                .collectList())
+                .flatMapIterable(Function.identity());
     }
 
-    public ItemRequestDto addRequest(ItemRequestDtoFromRequest itemRequestDto, Long userId) {
+    public Mono<ItemRequestDto> addRequest(ItemRequestDtoFromRequest itemRequestDto, Long userId) {
         return client.post()
                 .uri("/requests")
                 .header(USER_HEADER, userId.toString())
                 .bodyValue(itemRequestDto)
                 .retrieve()
                 .bodyToMono(ItemRequestDto.class)
-                .block();
+                .doOnTerminate(() -> responseCache.evictAll(ResponseCache.ITEM_REQUEST_PAGES));
     }
 }
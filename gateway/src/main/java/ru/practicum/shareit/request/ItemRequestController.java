@@ -1,16 +1,19 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.List;
 
 /**
  * TODO Sprint add-item-requests.
@@ -25,29 +28,30 @@ public class ItemRequestController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
-    public ItemRequestDto addRequest(@RequestBody @Valid ItemRequestDtoFromRequest itemRequestDto,
-                                     @RequestHeader(USER_HEADER) Long userId) {
+    public Mono<ItemRequestDto> addRequest(@RequestBody @Valid ItemRequestDtoFromRequest itemRequestDto,
+                                           @RequestHeader(USER_HEADER) Long userId) {
         return itemRequestClient.addRequest(itemRequestDto, userId);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDto> getUserItemRequest(@RequestHeader(USER_HEADER) Long userId) {
+    public Flux<ItemRequestDto> getUserItemRequest(@RequestHeader(USER_HEADER) Long userId) {
         return itemRequestClient.getUserRequest(userId);
     }
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDto> getAllItemRequests(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+    public Flux<ItemRequestDto> getAllItemRequests(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
                                                    @RequestParam(required = false, defaultValue = "10") @Positive int size,
                                                    @RequestHeader(USER_HEADER) Long userId) {
         return itemRequestClient.getAllRequests(from, size, userId);
     }
 
     @GetMapping("/{requestId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemRequestDto getItemRequestById(@PathVariable Long requestId,
-                                             @RequestHeader(USER_HEADER) Long userId) {
-        return itemRequestClient.getRequestById(requestId, userId);
+    public Mono<ResponseEntity<ItemRequestDto>> getItemRequestById(@PathVariable Long requestId,
+                                                                   @RequestHeader(USER_HEADER) Long userId,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                           required = false) String ifNoneMatch) {
+        return itemRequestClient.getRequestById(requestId, userId, ifNoneMatch);
     }
 }
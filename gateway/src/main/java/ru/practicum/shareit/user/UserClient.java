@@ -1,67 +1,76 @@
 package ru.practicum.shareit.user;
 
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.common.ResponseCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoFromRequest;
 
-import java.util.List;
-
 @Service
 public class UserClient {
     private final WebClient client;
+    private final ResponseCache responseCache;
 
-    public UserClient(@Value("${shareit-server.url}") String url) {
-        this.client = WebClient.create(url);
+    public UserClient(WebClient shareItServerWebClient, ResponseCache responseCache) {
+        this.client = shareItServerWebClient;
+        this.responseCache = responseCache;
     }
 
-    public UserDto getUserById(long userId) {
-        return client
+    public Mono<UserDto> getUserById(long userId) {
+        return responseCache.get(ResponseCache.USERS, ResponseCache.key(userId), () -> client
                 .get()
                 .uri("/users/{userId}", userId)
                 .retrieve()
-                .bodyToMono(UserDto.class)
-                .block();
+                .bodyToMono(UserDto.class));
     }
 
-    public List<UserDto> getAllUsers(int from, int size) {
+    public Flux<UserDto> getAllUsers(int from, int size) {
         return client.get()
                 .uri(uriBuilder -> uriBuilder.path("/users")
                         .queryParam("from", from)
                         .queryParam("size", size)
                         .build())
                 .retrieve()
-                .bodyToFlux(UserDto.class)
-                .collectList()
-                .block();
+                .bodyToFlux(UserDto.class);
     }
 
 
-    public UserDto saveUser(UserDtoFromRequest userDto) {
+    public Mono<UserDto> saveUser(UserDtoFromRequest userDto) {
         return client.post()
                 .uri("/users")
                 .bodyValue(userDto)
                 .retrieve()
-                .bodyToMono(UserDto.class)
-                .block();
+                .bodyToMono(UserDto.class);
     }
 
-    public UserDto updateUser(UserDtoFromRequest userDto, long userId) {
+    public Mono<UserDto> updateUser(UserDtoFromRequest userDto, long userId) {
         return client.patch()
                 .uri("/users/{userId}", userId)
                 .bodyValue(userDto)
                 .retrieve()
                 .bodyToMono(UserDto.class)
-                .block();
+                .doOnTerminate(() -> evictUser(userId));
     }
 
-    public void deleteUser(long userId) {
-        client.delete()
+    public Mono<Void> deleteUser(long userId) {
+        return client.delete()
                 .uri("/users/{userId}", userId)
                 .retrieve()
-                .toBodilessEntity()
-                .block();
+                .bodyToMono(Void.class)
+                .doOnTerminate(() -> {
+                    evictUser(userId);
+                    responseCache.evictAll(ResponseCache.ITEM_REQUESTS, ResponseCache.ITEM_REQUEST_PAGES);
+                });
+    }
+
+    /**
+     * Items show the names of comment authors, and it is not known here which items this user commented on.
+     */
+    private void evictUser(long userId) {
+        responseCache.evict(ResponseCache.USERS, userId);
+        responseCache.evictAll(ResponseCache.ITEMS);
     }
 }
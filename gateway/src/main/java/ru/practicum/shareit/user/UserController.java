@@ -5,13 +5,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoFromRequest;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
@@ -26,7 +27,7 @@ public class UserController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<UserDto> getAllUsers(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+    public Flux<UserDto> getAllUsers(@RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
                                      @RequestParam(required = false, defaultValue = "20") @Positive int size) {
         log.info("the list of users has been received");
         return userClient.getAllUsers(from, size);
@@ -34,26 +35,26 @@ public class UserController {
 
     @GetMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
-    public UserDto getUserById(@PathVariable Long userId) {
+    public Mono<UserDto> getUserById(@PathVariable Long userId) {
         return userClient.getUserById(userId);
     }
 
     @DeleteMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
-    public void deleteUser(@PathVariable Long userId) {
-        userClient.deleteUser(userId);
+    public Mono<Void> deleteUser(@PathVariable Long userId) {
+        return userClient.deleteUser(userId);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public UserDto saveUser(@Valid @RequestBody UserDtoFromRequest userDto) {
-       return userClient.saveUser(userDto);
+    public Mono<UserDto> saveUser(@Valid @RequestBody UserDtoFromRequest userDto) {
+        return userClient.saveUser(userDto);
     }
 
     @PatchMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
-    public UserDto updateUser(@Valid @PathVariable Long userId,
-                              @RequestBody UserDtoFromRequest userDto) {
+    public Mono<UserDto> updateUser(@Valid @PathVariable Long userId,
+                                    @RequestBody UserDtoFromRequest userDto) {
         return userClient.updateUser(userDto, userId);
     }
 }
@@ -0,0 +1,163 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Puts a slow stub in place of shareit-server and sends three times as many concurrent requests through the
+ * gateway as it has event-loop threads. A gateway that holds a thread per in-flight call serves them in three
+ * rounds of {@link #SERVER_DELAY}; a non-blocking one answers them all in roughly one. The baseline is a proxy
+ * on as many event-loop threads that calls the stub with a blocking client, driven by the same requests.
+ * Both tests log the concurrency they sustained: the number of server delays that elapsed in parallel.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.response-cache.enabled=false")
+class GatewayConcurrencyTest {
+    private static final Duration SERVER_DELAY = Duration.ofMillis(500);
+    private static final int EVENT_LOOP_THREADS = LoopResources.DEFAULT_IO_WORKER_COUNT;
+    private static final int CONCURRENT_REQUESTS = 3 * EVENT_LOOP_THREADS;
+    private static final String USER_JSON = "{\"id\":1,\"name\":\"name\",\"email\":\"e@email.com\"}";
+
+    private static DisposableServer server;
+    private static LoopResources baselineLoops;
+    private static DisposableServer blockingBaseline;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes.get("/users/{userId}", (request, response) -> response
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendString(Mono.delay(SERVER_DELAY).thenReturn(USER_JSON))))
+                .bindNow();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.port());
+
+        HttpClient blockingClient = HttpClient.newHttpClient();
+        URI userUri = URI.create("http://localhost:" + server.port() + "/users/1");
+        baselineLoops = LoopResources.create("blocking-baseline", EVENT_LOOP_THREADS, true);
+        blockingBaseline = HttpServer.create()
+                .port(0)
+                .runOn(baselineLoops)
+                .route(routes -> routes.get("/users/{userId}", (request, response) -> response
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendString(Mono.just(getBlocking(blockingClient, userUri)))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        blockingBaseline.disposeNow();
+        baselineLoops.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void getUserByIdWhenRequestsExceedEventLoopThreadsAndThenAllAreServedConcurrently() {
+        double concurrency = measureConcurrency("gateway", port);
+
+        assertTrue(concurrency > EVENT_LOOP_THREADS,
+                "gateway served no more requests at once than it has event-loop threads: " + concurrency);
+    }
+
+    @Test
+    void getUserByIdWhenBaselineBlocksItsEventLoopThreadsAndThenRequestsAreServedInRounds() {
+        double concurrency = measureConcurrency("blocking baseline", blockingBaseline.port());
+
+        assertTrue(concurrency <= EVENT_LOOP_THREADS,
+                "blocking baseline served more requests at once than it has threads: " + concurrency);
+    }
+
+    @Test
+    void getUserByIdWhenRequestIsServedAndThenPoolMetricsArePublished() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        getUser(client).block(Duration.ofSeconds(30));
+
+        Gauge maxConnections = meterRegistry.find("reactor.netty.connection.provider.max.connections")
+                .tag("name", "shareit-server")
+                .gauge();
+
+        assertNotNull(maxConnections);
+        assertTrue(maxConnections.value() > 0);
+    }
+
+    /**
+     * Returns how many server delays elapsed in parallel on average, which is how many requests were in flight
+     * at once: {@link #CONCURRENT_REQUESTS} on an unbounded server, the thread count on a blocking one.
+     */
+    private double measureConcurrency(String name, int port) {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        getUser(client).block(Duration.ofSeconds(30));
+        long startTime = System.nanoTime();
+
+        List<UserDto> users = Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> getUser(client), CONCURRENT_REQUESTS)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startTime);
+        double concurrency = (double) SERVER_DELAY.multipliedBy(CONCURRENT_REQUESTS).toNanos() / elapsed.toNanos();
+        log.info("{}: {} requests with a {} ms server delay took {} ms on {} event-loop threads, "
+                        + "{} requests in flight on average", name, CONCURRENT_REQUESTS, SERVER_DELAY.toMillis(),
+                elapsed.toMillis(), EVENT_LOOP_THREADS, String.format("%.1f", concurrency));
+
+        assertEquals(CONCURRENT_REQUESTS, users.size());
+        return concurrency;
+    }
+
+    private static String getBlocking(HttpClient client, URI uri) {
+        try {
+            return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()).body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Mono<UserDto> getUser(WebClient client) {
+        return client.get()
+                .uri("/users/{userId}", 1)
+                .retrieve()
+                .bodyToMono(UserDto.class);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends a request through the gateway to a stub shareit-server and scrapes {@code /actuator/prometheus}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.response-cache.enabled=false")
+@AutoConfigureMetrics
+class GatewayMetricsTest {
+    private static final String USER_JSON = "{\"id\":1,\"name\":\"name\",\"email\":\"e@email.com\"}";
+
+    private static DisposableServer server;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes.get("/users/{userId}", (request, response) -> "1".equals(request.param("userId"))
+                        ? response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendString(Mono.just(USER_JSON))
+                        : response.status(HttpResponseStatus.NOT_FOUND).send()))
+                .bindNow();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.port());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void scrapeWhenUserIsRequestedAndThenEndpointClientAndPoolMetricsArePublished() {
+        webTestClient.get()
+                .uri("/users/{userId}", 1)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/users/{userId}", 404)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        String scrape = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertHasSample(scrape, "http_server_requests_seconds_bucket{", "uri=\"/users/{userId}\"");
+        assertHasSample(scrape, "shareit_client_requests_seconds_bucket{",
+                "client=\"UserClient\"", "method=\"getUserById\"", "outcome=\"SUCCESS\"");
+        assertHasSample(scrape, "shareit_client_requests_seconds_count{",
+                "client=\"UserClient\"", "outcome=\"ERROR\"");
+        assertHasSample(scrape, "reactor_netty_connection_provider_max_connections{", "name=\"shareit-server\"");
+    }
+
+    private static void assertHasSample(String scrape, String metric, String... tags) {
+        assertTrue(Arrays.stream(scrape.split("\n"))
+                        .filter(line -> line.startsWith(metric))
+                        .anyMatch(line -> Arrays.stream(tags).allMatch(line::contains)),
+                metric + " with " + String.join(", ", tags));
+    }
+}
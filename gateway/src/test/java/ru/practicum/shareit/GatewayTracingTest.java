@@ -0,0 +1,98 @@
+package ru.practicum.shareit;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.autoconfig.actuate.BufferingSpanReporter;
+import org.springframework.cloud.sleuth.exporter.FinishedSpan;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the trace context of a gateway request reaches shareit-server, stubbed here, as B3 headers.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.response-cache.enabled=false",
+        "spring.sleuth.sampler.probability=1.0",
+        "management.endpoint.traces.enabled=true",
+        "shareit.tracing.log.enabled=true"
+})
+class GatewayTracingTest {
+    private static final String USER_JSON = "{\"id\":1,\"name\":\"name\",\"email\":\"e@email.com\"}";
+    private static final AtomicReference<HttpHeaders> SERVER_HEADERS = new AtomicReference<>();
+
+    private static DisposableServer server;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private BufferingSpanReporter spanReporter;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes.get("/users/{userId}", (request, response) -> {
+                    SERVER_HEADERS.set(request.requestHeaders());
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.just(USER_JSON));
+                }))
+                .bindNow();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.port());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void getUserByIdWhenRequestIsSampledAndThenServerReceivesTheClientSpanAsParent() throws InterruptedException {
+        webTestClient.get()
+                .uri("/users/{userId}", 1)
+                .exchange()
+                .expectStatus().isOk();
+
+        FinishedSpan client = awaitSpan(Span.Kind.CLIENT);
+        FinishedSpan request = awaitSpan(Span.Kind.SERVER);
+
+        assertEquals(request.getTraceId(), client.getTraceId());
+        assertEquals(request.getSpanId(), client.getParentId());
+        assertEquals(client.getTraceId(), SERVER_HEADERS.get().get("X-B3-TraceId"));
+        assertEquals(client.getSpanId(), SERVER_HEADERS.get().get("X-B3-SpanId"));
+        assertEquals("1", SERVER_HEADERS.get().get("X-B3-Sampled"));
+    }
+
+    /**
+     * The server span is reported once the response has been written, which may be after the client has it.
+     */
+    private FinishedSpan awaitSpan(Span.Kind kind) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<FinishedSpan> spans = spanReporter.getFinishedSpans();
+            for (FinishedSpan span : spans) {
+                if (span.getKind() == kind) {
+                    return span;
+                }
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("no " + kind + " span has been reported");
+    }
+}
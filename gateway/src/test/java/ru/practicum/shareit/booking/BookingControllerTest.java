@@ -1,29 +1,30 @@
 package ru.practicum.shareit.booking;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = BookingController.class)
+@WebFluxTest(controllers = BookingController.class)
 class BookingControllerTest {
     @Autowired
-    private ObjectMapper objectMapper;
-
-    @Autowired
-    private MockMvc mockMvc;
+    private WebTestClient webTestClient;
 
     @MockBean
     private BookingClient bookingClient;
@@ -31,7 +32,6 @@ class BookingControllerTest {
     private final String userHeader = "X-Sharer-User-Id";
 
     @Test
-    @SneakyThrows
     void addBookingWhenStartIsBeforeEndThenStatusIsBadRequest() {
         Long userId = 1L;
         long bookingId = 1L;
@@ -41,14 +41,71 @@ class BookingControllerTest {
         BookingDto bookingDtoAfterRequest = createBookingDto(bookingId, start, end);
 
         when(bookingClient.addBooking(userId, bookingDtoBeforeRequest))
-                .thenReturn(bookingDtoAfterRequest);
-
-        mockMvc.perform(post("/bookings")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .header(userHeader, userId)
-                        .content(objectMapper.writeValueAsString(bookingDtoBeforeRequest)))
-                .andExpect(status().isBadRequest());
+                .thenReturn(Mono.just(bookingDtoAfterRequest));
+
+        webTestClient.post()
+                .uri("/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(userHeader, userId.toString())
+                .bodyValue(bookingDtoBeforeRequest)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getBookingsByOwnerWhenServerReturnedNextCursorThenOnlyCursorHeaderIsPassedThrough() {
+        Long userId = 1L;
+        BookingDto bookingDto = createBookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        ResponseEntity<Flux<BookingDto>> serverResponse = ResponseEntity.ok()
+                .header("X-Next-Cursor", "cursor")
+                .header("X-Server-Only", "value")
+                .body(Flux.just(bookingDto));
+
+        when(bookingClient.getBookingsByOwner(0, 1, userId, "ALL", ""))
+                .thenReturn(Mono.just(serverResponse));
+
+        webTestClient.get()
+                .uri("/bookings/owner?size=1&cursor=")
+                .header(userHeader, userId.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "cursor")
+                .expectHeader().doesNotExist("X-Server-Only")
+                .expectBodyList(BookingDto.class).hasSize(1);
+    }
+
+    @Test
+    void exportBookingsByOwnerWhenServerStreamsCsvThenBodyAndContentTypeArePassedThrough() {
+        Long userId = 1L;
+        String csv = "id,start,end,status,itemId,itemName,bookerId\n";
+        ResponseEntity<Flux<DataBuffer>> serverResponse = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header("X-Server-Only", "value")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(csv.getBytes(StandardCharsets.UTF_8))));
+
+        when(bookingClient.exportBookingsByOwner(userId, BookingExportFormat.CSV))
+                .thenReturn(Mono.just(serverResponse));
+
+        webTestClient.get()
+                .uri("/bookings/owner/export?format=CSV")
+                .header(userHeader, userId.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv")
+                .expectHeader().doesNotExist("X-Server-Only")
+                .expectBody(String.class).isEqualTo(csv);
+    }
+
+    @Test
+    void exportBookingsByBookerWhenFormatIsUnknownThenStatusIsBadRequest() {
+        webTestClient.get()
+                .uri("/bookings/export?format=XML")
+                .header(userHeader, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
     }
 
     private BookingDto createBookingDto(long bookingId, LocalDateTime start, LocalDateTime end) {
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private static final String REGION = "region";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void getWhenMissesOverlapAndThenServerIsAskedOnce() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        Sinks.One<String> response = Sinks.one();
+
+        Mono<String> first = cache.get(REGION, ResponseCache.key(1L), () -> load(response.asMono()));
+        Mono<String> second = cache.get(REGION, ResponseCache.key(1L), () -> load(response.asMono()));
+        Mono<List<String>> both = Mono.zip(first, second, List::of);
+        response.tryEmitValue("answer");
+
+        assertEquals(List.of("answer", "answer"), both.block(TIMEOUT));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getWhenServerFailsAndThenFailureIsNotCached() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+
+        Mono<String> failing = cache.get(REGION, ResponseCache.key(1L),
+                () -> load(Mono.error(new IllegalStateException("unavailable"))));
+        assertThrows(IllegalStateException.class, () -> failing.block(TIMEOUT));
+
+        assertEquals("answer", cache.get(REGION, ResponseCache.key(1L), () -> load(Mono.just("answer")))
+                .block(TIMEOUT));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictWhenKeysStartWithIdAndThenOnlyTheirEntriesAreDropped() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        for (List<?> key : List.of(ResponseCache.key(1L, 1L), ResponseCache.key(1L, 2L), ResponseCache.key(2L, 1L))) {
+            cache.get(REGION, key, () -> load(Mono.just("answer"))).block(TIMEOUT);
+        }
+
+        cache.evict(REGION, 1L);
+        for (List<?> key : List.of(ResponseCache.key(1L, 1L), ResponseCache.key(1L, 2L), ResponseCache.key(2L, 1L))) {
+            cache.get(REGION, key, () -> load(Mono.just("answer"))).block(TIMEOUT);
+        }
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void getWhenRegionIsNotConfiguredAndThenEveryCallGoesToServer() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+
+        cache.get("unknown", ResponseCache.key(1L), () -> load(Mono.just("answer"))).block(TIMEOUT);
+        cache.get("unknown", ResponseCache.key(1L), () -> load(Mono.just("answer"))).block(TIMEOUT);
+
+        assertFalse(cache.isEnabled("unknown"));
+        assertEquals(2, loads.get());
+    }
+
+    private Mono<String> load(Mono<String> response) {
+        loads.incrementAndGet();
+        return response;
+    }
+
+    private ResponseCache cache(Duration ttl) {
+        ResponseCacheProperties.Region region = new ResponseCacheProperties.Region();
+        region.setTtl(ttl);
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.getRegions().put(REGION, region);
+        return new ResponseCache(properties);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.practicum.shareit.common.ResponseCache;
+import ru.practicum.shareit.common.ResponseCacheProperties;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Puts a stub in place of shareit-server that answers with a 304 whenever the current ETag is sent back and
+ * records the {@code If-None-Match} of every GET it receives.
+ */
+class ItemClientTest {
+    private static final String ETAG = "\"3-0-0\"";
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"drill\",\"description\":\"cordless\","
+            + "\"available\":true}";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final List<String> RECEIVED_CONDITIONS = new CopyOnWriteArrayList<>();
+
+    private static DisposableServer server;
+
+    @BeforeAll
+    static void startServer() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/{itemId}", (request, response) -> {
+                            String ifNoneMatch = request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH);
+                            RECEIVED_CONDITIONS.add(String.valueOf(ifNoneMatch));
+                            response.header(HttpHeaders.ETAG, ETAG)
+                                    .header(HttpHeaders.VARY, "X-Sharer-User-Id");
+                            if (ETAG.equals(ifNoneMatch)) {
+                                return response.status(HttpStatus.NOT_MODIFIED.value()).send();
+                            }
+                            return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just(ITEM_JSON));
+                        })
+                        .route(request -> HttpMethod.PATCH.equals(request.method()), (request, response) -> response
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.just(ITEM_JSON))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        RECEIVED_CONDITIONS.clear();
+    }
+
+    @Test
+    void getItemByIdWhenCacheIsDisabledAndNoETagIsSentAndThenItemIsReturnedWithServerETag() {
+        ResponseEntity<ItemDetailedDto> response = itemClient(false).getItemById(1L, 1L, null).block(TIMEOUT);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals("X-Sharer-User-Id", response.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals("drill", response.getBody().getName());
+        assertNull(response.getHeaders().getContentType());
+    }
+
+    @Test
+    void getItemByIdWhenCacheIsDisabledAndCurrentETagIsSentAndThenNotModifiedIsRelayedWithoutBody() {
+        ResponseEntity<ItemDetailedDto> response = itemClient(false).getItemById(1L, 1L, ETAG).block(TIMEOUT);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(List.of(ETAG), RECEIVED_CONDITIONS);
+    }
+
+    @Test
+    void getItemByIdWhenAnswerIsCachedAndThenServerIsAskedOnceAndETagIsCheckedByGateway() {
+        ItemClient itemClient = itemClient(true);
+
+        ResponseEntity<ItemDetailedDto> first = itemClient.getItemById(1L, 1L, null).block(TIMEOUT);
+        ResponseEntity<ItemDetailedDto> second = itemClient.getItemById(1L, 1L, null).block(TIMEOUT);
+        ResponseEntity<ItemDetailedDto> conditional = itemClient.getItemById(1L, 1L, "W/" + ETAG).block(TIMEOUT);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getStatusCode());
+        assertEquals(ETAG, conditional.getHeaders().getETag());
+        assertNull(conditional.getBody());
+        assertEquals(List.of("null"), RECEIVED_CONDITIONS);
+    }
+
+    @Test
+    void getItemByIdWhenAnotherUserAsksAndThenAnswerIsNotShared() {
+        ItemClient itemClient = itemClient(true);
+
+        itemClient.getItemById(1L, 1L, null).block(TIMEOUT);
+        itemClient.getItemById(1L, 2L, null).block(TIMEOUT);
+
+        assertEquals(2, RECEIVED_CONDITIONS.size());
+    }
+
+    @Test
+    void updateItemWhenItemIsCachedAndThenNextGetGoesToServer() {
+        ItemClient itemClient = itemClient(true);
+        itemClient.getItemById(1L, 1L, null).block(TIMEOUT);
+        itemClient.getItemById(1L, 2L, null).block(TIMEOUT);
+
+        itemClient.updateItem(new ItemDtoFromRequest("drill", "corded", null, null), 1L, 1L).block(TIMEOUT);
+        itemClient.getItemById(1L, 2L, null).block(TIMEOUT);
+
+        assertEquals(3, RECEIVED_CONDITIONS.size());
+    }
+
+    private ItemClient itemClient(boolean cacheEnabled) {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(cacheEnabled);
+        properties.getRegions().put(ResponseCache.ITEMS, new ResponseCacheProperties.Region());
+        return new ItemClient(WebClient.create("http://localhost:" + server.port()), new ItemImportProperties(),
+                new ResponseCache(properties));
+    }
+}
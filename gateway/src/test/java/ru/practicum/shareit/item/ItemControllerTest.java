@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(controllers = ItemController.class)
+@Import(ItemImporter.class)
+@EnableConfigurationProperties(ItemImportProperties.class)
+class ItemControllerTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    private final long userId = 1L;
+    private final List<ItemImportRow> sentRows = new ArrayList<>();
+
+    @Test
+    void importItemsFromNdjsonWhenSomeRowsAreInvalidAndThenOnlyValidRowsAreSentToServer() {
+        mockServerRejecting(new ItemImportError(5, "item request with id=9 not found"));
+        String upload = "{\"name\":\"drill\",\"description\":\"cordless\",\"available\":true}\n"
+                + "{\"name\":\"\",\"description\":\"cordless\",\"available\":true}\n"
+                + "{\"name\":\"saw\"\n"
+                + "\n"
+                + "{\"name\":\"saw\",\"description\":\"circular\",\"available\":false,\"requestId\":9}\n";
+
+        ItemImportReport report = postImport(MediaType.APPLICATION_NDJSON, upload);
+
+        assertEquals(List.of(
+                new ItemImportRow(1L, new ItemDtoFromRequest("drill", "cordless", Boolean.TRUE, null)),
+                new ItemImportRow(5L, new ItemDtoFromRequest("saw", "circular", Boolean.FALSE, 9L))), sentRows);
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2L, 3L, 5L), report.getErrors().stream().map(ItemImportError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals("name: must not be empty", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importItemsFromCsvWhenColumnsAreReorderedAndQuotedAndThenRowsAreMappedByHeader() {
+        mockServerRejecting();
+        String upload = "available,name,description,requestId\r\n"
+                + "true,drill,\"cordless, 18V \"\"pro\"\"\",\r\n"
+                + "maybe,saw,circular,\r\n"
+                + "false,saw,circular,x\r\n"
+                + "true,,circular,\r\n";
+
+        ItemImportReport report = postImport(TEXT_CSV, upload);
+
+        assertEquals(List.of(new ItemImportRow(2L,
+                new ItemDtoFromRequest("drill", "cordless, 18V \"pro\"", Boolean.TRUE, null))), sentRows);
+        assertEquals(1, report.getImported());
+        assertEquals(List.of(
+                new ItemImportError(3, "available: must be true or false"),
+                new ItemImportError(4, "requestId: must be a number"),
+                new ItemImportError(5, "name: must not be empty")), report.getErrors());
+    }
+
+    @Test
+    void importItemsFromCsvWhenHeaderLacksRequiredColumnAndThenStatusIsBadRequest() {
+        webTestClient.post()
+                .uri("/items/import")
+                .contentType(TEXT_CSV)
+                .header(USER_HEADER, String.valueOf(userId))
+                .bodyValue("name,description\ndrill,cordless\n")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(itemClient, never()).importItems(any(), any());
+    }
+
+    @Test
+    void findItemByIdWhenIfNoneMatchIsSentAndThenItIsForwardedAndNotModifiedIsReturned() {
+        when(itemClient.getItemById(1L, userId, "\"3\""))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"3\"").build()));
+
+        webTestClient.get()
+                .uri("/items/{itemId}", 1)
+                .header(USER_HEADER, String.valueOf(userId))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+    }
+
+    private void mockServerRejecting(ItemImportError... errors) {
+        when(itemClient.importItems(any(), eq(userId))).thenAnswer(invocation -> {
+            Flux<ItemImportRow> rows = invocation.getArgument(0);
+            return rows.doOnNext(sentRows::add)
+                    .count()
+                    .map(count -> new ItemImportReport(count - errors.length, errors.length,
+                            new ArrayList<>(List.of(errors))));
+        });
+    }
+
+    private ItemImportReport postImport(MediaType contentType, String upload) {
+        return webTestClient.post()
+                .uri("/items/import")
+                .contentType(contentType)
+                .header(USER_HEADER, String.valueOf(userId))
+                .bodyValue(upload)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ItemImportReport.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
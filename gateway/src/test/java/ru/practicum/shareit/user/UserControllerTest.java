@@ -1,35 +1,26 @@
 package ru.practicum.shareit.user;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoFromRequest;
 
-import java.nio.charset.StandardCharsets;
-
 import static org.mockito.Mockito.*;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = UserController.class)
+@WebFluxTest(controllers = UserController.class)
 class UserControllerTest {
     @Autowired
-    private MockMvc mockMvc;
-
-    @Autowired
-    private ObjectMapper objectMapper;
+    private WebTestClient webTestClient;
 
     @MockBean
     private UserClient userClient;
 
     @Test
-    @SneakyThrows
     void saveUserWhenAddAndThenStatusIsBadRequestAndUserNameIsWrong() {
         UserDtoFromRequest userDto1 = new UserDtoFromRequest("", "e1@email.com");
         long userId = 1L;
@@ -39,20 +30,20 @@ class UserControllerTest {
         UserDto userDtoAfterRequest = createUserDto(userId, userName, userEmail);
 
         when(userClient.saveUser(userDto1))
-                .thenReturn(userDtoAfterRequest);
+                .thenReturn(Mono.just(userDtoAfterRequest));
 
-        mockMvc.perform(post("/users")
-                        .content(objectMapper.writeValueAsString(userDto1))
-                        .characterEncoding(StandardCharsets.UTF_8)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest());
+        webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto1)
+                .exchange()
+                .expectStatus().isBadRequest();
 
         verify(userClient, never()).saveUser(userDto1);
     }
 
     @Test
-    @SneakyThrows
     void saveUserWhenAddAndThenStatusIsBadRequestAndUserEmailIsWrong() {
         UserDtoFromRequest userDto1 = new UserDtoFromRequest("name", "e1email.com");
         long userId = 1L;
@@ -62,14 +53,15 @@ class UserControllerTest {
         UserDto userDtoAfterRequest = createUserDto(userId, userName, userEmail);
 
         when(userClient.saveUser(userDto1))
-                .thenReturn(userDtoAfterRequest);
-
-        mockMvc.perform(post("/users")
-                        .content(objectMapper.writeValueAsString(userDto1))
-                        .characterEncoding(StandardCharsets.UTF_8)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest());
+                .thenReturn(Mono.just(userDtoAfterRequest));
+
+        webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto1)
+                .exchange()
+                .expectStatus().isBadRequest();
 
         verify(userClient, never()).saveUser(userDto1);
     }
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.common.MyPageRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -20,7 +26,9 @@ import java.util.List;
 @Validated
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -46,19 +54,60 @@ public class BookingController {
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping
-    public List<BookingDto> getBookingsByBooker(@RequestHeader(USER_HEADER) Long userId,
-                                                @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                @RequestParam(required = false, defaultValue = "0") int from,
-                                                @RequestParam(required = false, defaultValue = "20") int size) {
-        return bookingService.getBookingsByBooker(MyPageRequest.of(from, size), userId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByBooker(@RequestHeader(USER_HEADER) Long userId,
+                                                                @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                                @RequestParam(required = false, defaultValue = "0") int from,
+                                                                @RequestParam(required = false, defaultValue = "20") int size,
+                                                                @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingsByBooker(MyPageRequest.of(from, size), userId, state));
+        }
+        return withNextCursor(bookingService.getBookingsByBooker(BookingCursor.decode(cursor), size, userId, state),
+                size);
     }
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader(USER_HEADER) Long userId,
-                                               @RequestParam(defaultValue = "ALL", required = false) String state,
-                                               @RequestParam(required = false, defaultValue = "0") int from,
-                                               @RequestParam(required = false, defaultValue = "20") int size) {
-        return bookingService.getBookingsByOwner(MyPageRequest.of(from, size), userId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestHeader(USER_HEADER) Long userId,
+                                                               @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                               @RequestParam(required = false, defaultValue = "0") int from,
+                                                               @RequestParam(required = false, defaultValue = "20") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingsByOwner(MyPageRequest.of(from, size), userId, state));
+        }
+        return withNextCursor(bookingService.getBookingsByOwner(BookingCursor.decode(cursor), size, userId, state),
+                size);
+    }
+
+    @GetMapping("/export")
+    public void exportBookingsByBooker(@RequestHeader(USER_HEADER) Long userId,
+                                       @RequestParam(defaultValue = "NDJSON", required = false) BookingExportFormat format,
+                                       HttpServletResponse response) throws IOException {
+        BookingExportWriter writer = new BookingExportWriter(format, response, objectMapper);
+        bookingService.exportBookingsByBooker(userId, writer::write);
+        writer.finish();
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwner(@RequestHeader(USER_HEADER) Long userId,
+                                      @RequestParam(defaultValue = "NDJSON", required = false) BookingExportFormat format,
+                                      HttpServletResponse response) throws IOException {
+        BookingExportWriter writer = new BookingExportWriter(format, response, objectMapper);
+        bookingService.exportBookingsByOwner(userId, writer::write);
+        writer.finish();
+    }
+
+    /**
+     * A page shorter than requested is the last one, so it goes out without a cursor.
+     */
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingCursor nextCursor = BookingCursor.after(bookings.get(bookings.size() - 1));
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor.encode())
+                .body(bookings);
     }
 }
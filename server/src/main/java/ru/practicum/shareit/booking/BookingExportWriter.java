@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes each booking to the response as soon as it comes off the database cursor. The response is
+ * only touched on the first row or on {@link #finish()}, so an error raised before that, such as an
+ * unknown user, still goes out as an ordinary JSON error.
+ */
+class BookingExportWriter {
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId";
+    private static final DateTimeFormatter CSV_TIME_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final BookingExportFormat format;
+    private final HttpServletResponse response;
+    private final ObjectMapper objectMapper;
+    private Writer writer;
+
+    BookingExportWriter(BookingExportFormat format, HttpServletResponse response, ObjectMapper objectMapper) {
+        this.format = format;
+        this.response = response;
+        this.objectMapper = objectMapper;
+    }
+
+    void write(BookingDto booking) {
+        try {
+            writeLine(format == BookingExportFormat.CSV ? toCsv(booking) : objectMapper.writeValueAsString(booking));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        open();
+        writer.flush();
+    }
+
+    private void writeLine(String line) throws IOException {
+        open();
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    private void open() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV) {
+            writeLine(CSV_HEADER);
+        }
+    }
+
+    private static String toCsv(BookingDto booking) {
+        return String.join(",",
+                String.valueOf(booking.getId()),
+                CSV_TIME_FORMAT.format(booking.getStart()),
+                CSV_TIME_FORMAT.format(booking.getEnd()),
+                booking.getStatus().name(),
+                String.valueOf(booking.getItem().getId()),
+                quote(booking.getItem().getName()),
+                String.valueOf(booking.getBooker().getId()));
+    }
+
+    private static String quote(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -1,51 +1,113 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findBookingByBookerIdOrderByStartDesc(
-            Pageable pageable, Long bookerId);
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    List<Booking> findBookingByBookerIdAndStartIsBeforeAndEndIsAfter(
-            Pageable pageable, Long bookerId, LocalDateTime starTime, LocalDateTime endTime);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
+    /**
+     * Select clause shared by the booking list queries. Rows are built straight into {@link BookingDto},
+     * so a page never puts bookings, items or users into the persistence context.
+     */
+    String BOOKING_DTO_SELECT = "SELECT new ru.practicum.shareit.booking.dto.BookingDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "FROM Booking b " +
+            "JOIN b.item i ";
 
-    List<Booking> findBookingsByBookerIdAndEndIsBefore(
-            Pageable pageable, Long bookerId, LocalDateTime endTime);
+    /**
+     * Rows the JDBC driver pulls per round trip while an export stream is read, so only that many are in
+     * memory at a time. PostgreSQL honours it only inside a transaction.
+     */
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<Booking> findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(
-            Pageable pageable, Long bookerId, LocalDateTime startTime);
+    @Query(BOOKING_DTO_SELECT +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<BookingDto> streamBookerBookings(Long bookerId);
 
-    List<Booking> findBookingsByBookerIdAndStatusEquals(
-            Pageable pageable, Long bookerId, BookingStatus status);
+    @Query(BOOKING_DTO_SELECT +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<BookingDto> streamOwnerBookings(Long ownerId);
 
-    List<Booking> findBookingsByItemOwnerIdOrderByStartDesc(
-            Pageable pageable, Long ownerId);
+    Optional<Booking> findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDesc(
+            Long itemId, BookingStatus status, LocalDateTime endTime);
 
-    List<Booking> findBookingsByItemOwnerIdAndStartIsBeforeAndEndIsAfter(
-            Pageable pageable, Long ownerId, LocalDateTime startTime, LocalDateTime endTime);
+    Optional<Booking> findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAsc(
+            Long itemId, BookingStatus status, LocalDateTime startTime);
 
-    List<Booking> findBookingsByItemOwnerIdAndEndIsBefore(
-            Pageable pageable, Long ownerId, LocalDateTime endTime);
+    @Query("SELECT MIN(b.end) FROM Booking b " +
+            "WHERE b.item.id = ?1 " +
+            "AND b.status = ?2 AND b.end >= ?3")
+    Optional<LocalDateTime> findEarliestEndNotBefore(Long itemId, BookingStatus status, LocalDateTime time);
 
-    List<Booking> findBookingsByItemOwnerIdAndStartIsAfterOrderByStartDesc(
-            Pageable pageable, Long ownerId, LocalDateTime startTime);
+    @Query("SELECT b.item.id FROM Booking b WHERE b.id = ?1")
+    Optional<Long> findItemIdById(Long bookingId);
 
-    List<Booking> findBookingsByItemOwnerIdAndStatusEquals(
-            Pageable pageable, Long ownerId, BookingStatus status);
+    /**
+     * Approves a waiting booking of an item owned by {@code ownerId} unless an approved booking of the same item
+     * overlaps it, in a single statement. Returns 0 when any of these conditions does not hold; two concurrent
+     * calls for one booking cannot both succeed, because the second one waits for the row and then finds it
+     * no longer waiting. The overlap check alone does not see approvals of other bookings that are not yet
+     * committed, so the caller must hold the item lock of {@code ItemRepository.findByIdForUpdate}. The query
+     * space keeps Hibernate from evicting the whole second-level cache.
+     */
+    @Modifying
+    @Query(value = "UPDATE bookings SET status = 'APPROVED', version = version + 1 " +
+            "WHERE booking_id = ?1 AND status = 'WAITING' " +
+            "AND item_id IN (SELECT i.item_id FROM items i WHERE i.owner_id = ?2) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings a " +
+            "WHERE a.item_id = bookings.item_id AND a.status = 'APPROVED' " +
+            "AND a.end_time > bookings.start_time AND a.start_time < bookings.end_time)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "bookings"))
+    int approveIfWaiting(Long bookingId, Long ownerId);
 
-    Optional<Booking> findFirstByItemIdAndEndIsBeforeOrderByEndDesc(
-            Long itemId, LocalDateTime endTime);
+    @Modifying
+    @Query(value = "UPDATE bookings SET status = 'REJECTED', version = version + 1 " +
+            "WHERE booking_id = ?1 AND status = 'WAITING' " +
+            "AND item_id IN (SELECT i.item_id FROM items i WHERE i.owner_id = ?2)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "bookings"))
+    int rejectIfWaiting(Long bookingId, Long ownerId);
 
-    Optional<Booking> findFirstByItemIdAndStartIsAfter(
-            Long itemId, LocalDateTime startTime);
+    boolean existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+            Long itemId, BookingStatus status, LocalDateTime startTime, LocalDateTime endTime);
 
     boolean existsByBookerIdAndItemIdAndEndIsBefore(
             Long bookerId, Long itemId, LocalDateTime endTime);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM bookings_archive a " +
+            "WHERE a.user_id = ?1 AND a.item_id = ?2)",
+            nativeQuery = true)
+    boolean existsArchivedBooking(Long bookerId, Long itemId);
+
+    /**
+     * Makes sure a monthly partition exists for every month from {@code fromMonth} to {@code toMonth}.
+     * Returns the number of partitions created; always 0 on H2, which has no partitions.
+     */
+    @Query(value = "SELECT create_booking_partitions(?1, ?2)", nativeQuery = true)
+    int createPartitions(LocalDate fromMonth, LocalDate toMonth);
+
+    /**
+     * Moves the bookings that ended before {@code cutoff} to {@code bookings_archive} and returns their number.
+     * On PostgreSQL the cutoff should fall on a month boundary, so whole partitions are detached.
+     */
+    @Query(value = "SELECT archive_bookings(?1)", nativeQuery = true)
+    long archiveBookingsEndedBefore(LocalDateTime cutoff);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingSearchRepository {
+    /**
+     * Reads a page of the bookings {@code userId} has in the given role and state, ordered by
+     * {@code start DESC, id DESC} and starting strictly after {@code cursor}. Offset pages pass
+     * {@link BookingCursor#FIRST}, so every list request runs the same seek statement.
+     */
+    List<BookingDto> findBookings(Pageable pageable, BookingRole role, Long userId, State state,
+                                  BookingCursor cursor, LocalDateTime time);
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dao;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Java stand-ins for the PostgreSQL booking partition functions, registered in H2 with {@code CREATE ALIAS}.
+ */
+public final class H2BookingPartitions {
+    private static final String COLUMNS = "booking_id, start_time, end_time, item_id, user_id, status, version";
+
+    private H2BookingPartitions() {
+    }
+
+    public static int createPartitions(Date fromMonth, Date toMonth) {
+        return 0;
+    }
+
+    public static long archiveBookings(Connection connection, Timestamp cutoff) throws SQLException {
+        try (PreparedStatement copy = connection.prepareStatement("INSERT INTO bookings_archive (" + COLUMNS + ") "
+                + "SELECT " + COLUMNS + " FROM bookings WHERE end_time < ?");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM bookings WHERE end_time < ?")) {
+            copy.setTimestamp(1, cutoff);
+            int archived = copy.executeUpdate();
+            delete.setTimestamp(1, cutoff);
+            delete.executeUpdate();
+            return archived;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Query("SELECT s.itemId FROM ItemBookingSummary s " +
+            "WHERE s.refreshAt <= ?1 " +
+            "ORDER BY s.refreshAt")
+    List<Long> findStaleItemIds(Pageable pageable, LocalDateTime time);
+}
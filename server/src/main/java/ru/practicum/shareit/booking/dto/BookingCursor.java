@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.exception.IllegalBookingCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a booking history ordered by {@code start DESC, id DESC}.
+ * The next page holds the bookings that sort strictly after {@code (start, id)}.
+ * Clients get it as an opaque string and must not build it themselves.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class BookingCursor {
+    /**
+     * Sorts before every stored booking, so a seek from it returns the first page.
+     */
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static BookingCursor after(BookingDto bookingDto) {
+        return new BookingCursor(bookingDto.getStart(), bookingDto.getId());
+    }
+
+    public static BookingCursor decode(String cursor) {
+        if (cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalBookingCursorException(String.format("cursor %s is not valid", cursor));
+        }
+    }
+
+    public String encode() {
+        String position = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -19,6 +19,14 @@ public class BookingDto {
     private BookingItemDto item;
     private BookingUserDto booker;
 
+    /**
+     * Used by the JPQL constructor expressions in {@code BookingRepository}.
+     */
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                      Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, status, new BookingItemDto(itemId, itemName), new BookingUserDto(bookerId));
+    }
+
     @Getter
     @Setter
     @Builder
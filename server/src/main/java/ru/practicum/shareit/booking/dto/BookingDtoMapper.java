@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.dto.BookingDto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingDto.BookingUserDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -31,6 +32,15 @@ public class BookingDtoMapper {
                 .build();
     }
 
+    public static BookingShortDto toBookingShortDto(@NonNull SummarizedBooking booking) {
+        return BookingShortDto.builder()
+                .id(booking.getBookingId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
     public static Booking fromBookingDto(@NonNull BookingDtoFromRequest bookingDto, @NonNull User user,
                                          @NonNull Item item) {
         Booking booking = new Booking();
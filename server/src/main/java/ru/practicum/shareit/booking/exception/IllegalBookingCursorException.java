@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.exception;
+
+public class IllegalBookingCursorException extends RuntimeException {
+    public IllegalBookingCursorException(String message) {
+        super(message);
+    }
+}
@@ -22,7 +22,8 @@ import java.util.Objects;
 @Table(name = "bookings")
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Long id;
 
@@ -46,6 +47,18 @@ public class Booking {
     @Column(nullable = false, length = 20)
     private BookingStatus status;
 
+    /**
+     * Guards entity updates against lost writes. The guarded status updates in
+     * {@link ru.practicum.shareit.booking.dao.BookingRepository} bump it as well.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this(id, start, end, item, booker, status, 0L);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
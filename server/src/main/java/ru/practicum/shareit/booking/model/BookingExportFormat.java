@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+@Getter
+@RequiredArgsConstructor
+public enum BookingExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE),
+    CSV("text/csv");
+
+    private final String contentType;
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Side of a booking a history is read from: the bookings a user made or the bookings of the items a user owns.
+ */
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Last and next approved booking of an item as of the moment it was computed. It stays correct until
+ * {@code refreshAt}, the earliest start or end of an approved booking that would change it; a missing
+ * row means the item has no approved bookings at all.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "item_booking_summaries")
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start_time")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end_time"))
+    })
+    private SummarizedBooking last;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start_time")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end_time"))
+    })
+    private SummarizedBooking next;
+
+    @Column(name = "refresh_at")
+    private LocalDateTime refreshAt;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isStale(LocalDateTime time) {
+        return refreshAt != null && !time.isBefore(refreshAt);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemBookingSummary summary = (ItemBookingSummary) o;
+        return itemId != null && Objects.equals(itemId, summary.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
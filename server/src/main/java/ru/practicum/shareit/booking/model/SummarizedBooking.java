@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Copy of the booking fields an item view shows, kept in {@link ItemBookingSummary} so the view never
+ * has to read the bookings table.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Embeddable
+public class SummarizedBooking {
+    private Long bookingId;
+    private Long bookerId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public static SummarizedBooking of(Booking booking) {
+        return new SummarizedBooking(booking.getId(), booking.getBooker().getId(), booking.getStart(),
+                booking.getEnd());
+    }
+}
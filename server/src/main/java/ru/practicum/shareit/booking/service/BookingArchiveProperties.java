@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Period;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking-archive")
+public class BookingArchiveProperties {
+    /**
+     * Pause between two runs of the partition maintenance job.
+     */
+    private Duration delay = Duration.ofHours(1);
+    /**
+     * How long bookings stay in the bookings table after they end. Older ones are moved to the archive a whole
+     * month at a time, once the month they ended in lies entirely before the cutoff.
+     */
+    private Period retention = Period.ofYears(1);
+    /**
+     * Months after the current one that always have a partition ready.
+     */
+    private int partitionsAhead = 3;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PersistenceException;
+
+/**
+ * Creates the booking partitions of the coming months ahead of time and archives the ones past retention.
+ * Both steps are idempotent and serialized in the database, so every server instance may run the job.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingArchiveScheduler {
+    private final BookingArchiveService archiveService;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-archive.delay:PT1H}")
+    public void maintainPartitions() {
+        try {
+            int created = archiveService.createPartitions();
+            long archived = archiveService.archiveBookings();
+            if (created > 0 || archived > 0) {
+                log.info("{} booking partitions have been created, {} bookings have been archived", created,
+                        archived);
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            // bookings without a monthly partition land in the default one until a later run succeeds
+            log.warn("booking partitions have not been maintained", e);
+        }
+    }
+}
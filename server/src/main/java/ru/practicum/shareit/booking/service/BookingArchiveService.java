@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.service;
+
+public interface BookingArchiveService {
+    int createPartitions();
+
+    long archiveBookings();
+}
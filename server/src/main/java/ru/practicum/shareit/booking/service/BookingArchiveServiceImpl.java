@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the bookings table to the retention window. Archived bookings no longer show up in booking lists and
+ * exports; item booking summaries keep the snapshot of a last booking that has been archived.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookingArchiveServiceImpl implements BookingArchiveService {
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveProperties properties;
+
+    @Override
+    @Transactional
+    public int createPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        return bookingRepository.createPartitions(month, month.plusMonths(properties.getPartitionsAhead()));
+    }
+
+    @Override
+    @Transactional
+    public long archiveBookings() {
+        LocalDateTime cutoff = LocalDate.now()
+                .minus(properties.getRetention())
+                .withDayOfMonth(1)
+                .atStartOfDay();
+        return bookingRepository.archiveBookingsEndedBefore(cutoff);
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto addBooking(Long userId, BookingDtoFromRequest bookingDtoFromRequest);
@@ -16,4 +18,12 @@ public interface BookingService {
     List<BookingDto> getBookingsByBooker(Pageable pageable, Long userId, String state);
 
     List<BookingDto> getBookingsByOwner(Pageable pageable, Long userId, String state);
+
+    List<BookingDto> getBookingsByBooker(BookingCursor cursor, int size, Long userId, String state);
+
+    List<BookingDto> getBookingsByOwner(BookingCursor cursor, int size, Long userId, String state);
+
+    void exportBookingsByBooker(Long userId, Consumer<BookingDto> consumer);
+
+    void exportBookingsByOwner(Long userId, Consumer<BookingDto> consumer);
 }
@@ -1,15 +1,19 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
 import ru.practicum.shareit.booking.exception.*;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -18,105 +22,133 @@ import ru.practicum.shareit.item.exception.IncorrectParameterException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     @Override
     @Transactional
     public BookingDto addBooking(Long userId, BookingDtoFromRequest bookingDto) {
         Long itemId = bookingDto.getItemId();
-        Item item = getItem(itemId);
+        Item item = getItemForUpdate(itemId);
         User user = getUser(userId);
         Booking booking = BookingDtoMapper.fromBookingDto(bookingDto, user, item);
 
         checkUserIsNotOwner(item, userId);
         checkItemForAvailable(item);
+        checkBookingNotOverlapped(booking);
         bookingRepository.save(booking);
         return BookingDtoMapper.toBookingDto(booking);
     }
 
+    /**
+     * Moves a waiting booking to its final status with one guarded update. Only when the update matches no row
+     * is the booking read again, to tell the caller which condition failed. An approval locks the item first,
+     * so approvals of overlapping bookings of one item cannot both pass the overlap check.
+     */
     @Transactional
     @Override
     public BookingDto bookingConfirmation(Long userId, Long bookingId, Boolean isApproved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(String.format("booking with id = %d not found", bookingId)));
-
-        checkValidOwner(userId);
-        checkValidOwnerToItem(booking.getItem(), userId);
-        checkBookingStatusNotApprove(booking);
-        booking.setStatus((isApproved == Boolean.TRUE) ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return BookingDtoMapper.toBookingDto(updatedBooking);
+        boolean approve = isApproved == Boolean.TRUE;
+        if (approve) {
+            bookingRepository.findItemIdById(bookingId).ifPresent(itemRepository::findByIdForUpdate);
+        }
+        int updated = approve
+                ? bookingRepository.approveIfWaiting(bookingId, userId)
+                : bookingRepository.rejectIfWaiting(bookingId, userId);
+        if (updated == 0) {
+            checkBookingConfirmation(userId, bookingId, approve);
+            throw new ObjectOptimisticLockingFailureException(Booking.class, bookingId);
+        }
+        Booking booking = getBooking(bookingId);
+        if (approve) {
+            itemBookingSummaryService.addApprovedBooking(booking);
+        }
+        return BookingDtoMapper.toBookingDto(booking);
     }
 
     @Override
     public BookingDto getBookingById(Long userId, Long bookingId) {
-        checkValidOwner(userId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(String.format("booking with id = %d not found", bookingId)));
+        userExistenceValidator.checkUserExists(userId);
+        Booking booking = getBooking(bookingId);
         checkOwnerOrBooker(booking, userId);
         return BookingDtoMapper.toBookingDto(booking);
     }
 
     @Override
     public List<BookingDto> getBookingsByBooker(Pageable pageable, Long userId, String state) {
-        checkValidOwner(userId);
-        switch (getState(state)) {
-            case ALL:
-                return getAllBookingsByBookerId(pageable, userId);
-            case CURRENT:
-                return getCurrentBookingsByBookerId(pageable, userId);
-            case PAST:
-                return getPastBookingsByBookerId(pageable, userId);
-            case FUTURE:
-                return getFutureBookingsByBookerId(pageable, userId);
-            case WAITING:
-                return getWaitingBookingsByBookerId(pageable, userId);
-            case REJECTED:
-                return getRejectedBookingsByBookerId(pageable, userId);
-            default:
-                throw new RuntimeException();
-        }
+        return getBookings(pageable, BookingRole.BOOKER, userId, state, BookingCursor.FIRST);
     }
 
     @Override
     public List<BookingDto> getBookingsByOwner(Pageable pageable, Long userId, String state) {
-        checkValidOwner(userId);
-        switch (getState(state)) {
-            case ALL:
-                return getAllBookingsByOwnerId(pageable, userId);
-            case CURRENT:
-                return getCurrentBookingsByOwnerId(pageable, userId);
-            case PAST:
-                return getPastBookingsByOwnerId(pageable, userId);
-            case FUTURE:
-                return getFutureBookingsByOwnerId(pageable, userId);
-            case WAITING:
-                return getWaitingBookingsByOwnerId(pageable, userId);
-            case REJECTED:
-                return getRejectedBookingsByOwnerId(pageable, userId);
-            default:
-                throw new RuntimeException();
+        return getBookings(pageable, BookingRole.OWNER, userId, state, BookingCursor.FIRST);
+    }
+
+    @Override
+    public List<BookingDto> getBookingsByBooker(BookingCursor cursor, int size, Long userId, String state) {
+        return getBookings(PageRequest.ofSize(size), BookingRole.BOOKER, userId, state, cursor);
+    }
+
+    @Override
+    public List<BookingDto> getBookingsByOwner(BookingCursor cursor, int size, Long userId, String state) {
+        return getBookings(PageRequest.ofSize(size), BookingRole.OWNER, userId, state, cursor);
+    }
+
+    /**
+     * Hands the bookings to {@code consumer} one by one while the cursor is open, so the whole history
+     * is never held in memory. The read-only transaction stays open until the last row is consumed.
+     */
+    @Override
+    public void exportBookingsByBooker(Long userId, Consumer<BookingDto> consumer) {
+        userExistenceValidator.checkUserExists(userId);
+        try (Stream<BookingDto> bookings = bookingRepository.streamBookerBookings(userId)) {
+            bookings.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void exportBookingsByOwner(Long userId, Consumer<BookingDto> consumer) {
+        userExistenceValidator.checkUserExists(userId);
+        try (Stream<BookingDto> bookings = bookingRepository.streamOwnerBookings(userId)) {
+            bookings.forEach(consumer);
         }
     }
 
+    private List<BookingDto> getBookings(Pageable pageable, BookingRole role, Long userId, String state,
+                                         BookingCursor cursor) {
+        userExistenceValidator.checkUserExists(userId);
+        return bookingRepository.findBookings(pageable, role, userId, getState(state), cursor, LocalDateTime.now());
+    }
 
-    private void checkValidOwner(Long ownerId) {
-        if (userRepository.findById(ownerId).isEmpty()) {
-            throw new NotFoundException(String.format("user with id=%d not found", ownerId));
+    private void checkBookingConfirmation(Long userId, Long bookingId, boolean approve) {
+        Booking booking = getBooking(bookingId);
+        userExistenceValidator.checkUserExists(userId);
+        checkValidOwnerToItem(booking.getItem(), userId);
+        checkBookingIsWaiting(booking);
+        if (approve) {
+            checkBookingNotOverlapped(booking);
         }
     }
 
+    private Booking getBooking(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("booking with id = %d not found", bookingId)));
+    }
+
     private void checkValidOwnerToItem(Item item, Long ownerId) {
         if (!item.getOwner().getId().equals(ownerId)) {
             throw new IncorrectParameterException("this user doesn't have this item");
@@ -128,8 +160,8 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException(String.format("user with id=%d not found", userId)));
     }
 
-    private Item getItem(Long itemId) {
-        return itemRepository.findById(itemId)
+    private Item getItemForUpdate(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("item with id=%d not found", itemId)));
     }
 
@@ -148,9 +180,21 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private void checkBookingStatusNotApprove(Booking booking) {
-        if (booking.getStatus() == BookingStatus.APPROVED) {
-            throw new BookingAlreadyApprovedException(String.format("booking with id = %d already approved", booking.getId()));
+    private void checkBookingIsWaiting(Booking booking) {
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            throw new BookingAlreadyApprovedException(String.format("booking with id = %d already %s",
+                    booking.getId(), booking.getStatus().name().toLowerCase()));
+        }
+    }
+
+    private void checkBookingNotOverlapped(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException(
+                    String.format("item with id = %d is already booked from %s to %s", itemId, booking.getStart(),
+                            booking.getEnd())
+            );
         }
     }
 
@@ -175,90 +219,4 @@ public class BookingServiceImpl implements BookingService {
             throw new IllegalBookingStateException(String.format(state));
         }
     }
-
-    private List<BookingDto> getAllBookingsByBookerId(Pageable pageable, Long bookerId) {
-        return bookingRepository.findBookingByBookerIdOrderByStartDesc(pageable, bookerId)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getCurrentBookingsByBookerId(Pageable pageable, Long bookerId) {
-        LocalDateTime time = LocalDateTime.now();
-        return bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfter(pageable, bookerId, time, time)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getPastBookingsByBookerId(Pageable pageable, Long bookerId) {
-        return bookingRepository.findBookingsByBookerIdAndEndIsBefore(pageable, bookerId, LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getFutureBookingsByBookerId(Pageable pageable, Long bookerId) {
-        return bookingRepository.findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(pageable, bookerId, LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getWaitingBookingsByBookerId(Pageable pageable, Long bookerId) {
-        return bookingRepository.findBookingsByBookerIdAndStatusEquals(pageable, bookerId, BookingStatus.WAITING)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getRejectedBookingsByBookerId(Pageable pageable, Long bookerId) {
-        return bookingRepository.findBookingsByBookerIdAndStatusEquals(pageable, bookerId, BookingStatus.REJECTED)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getAllBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        return bookingRepository.findBookingsByItemOwnerIdOrderByStartDesc(pageable, ownerId)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getCurrentBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        LocalDateTime time = LocalDateTime.now();
-        return bookingRepository.findBookingsByItemOwnerIdAndStartIsBeforeAndEndIsAfter(pageable, ownerId, time, time)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getPastBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        return bookingRepository.findBookingsByItemOwnerIdAndEndIsBefore(pageable, ownerId, LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getFutureBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        return bookingRepository.findBookingsByItemOwnerIdAndStartIsAfterOrderByStartDesc(pageable, ownerId, LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getWaitingBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        return bookingRepository.findBookingsByItemOwnerIdAndStatusEquals(pageable, ownerId, BookingStatus.WAITING)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
-    private List<BookingDto> getRejectedBookingsByOwnerId(Pageable pageable, Long ownerId) {
-        return bookingRepository.findBookingsByItemOwnerIdAndStatusEquals(pageable, ownerId, BookingStatus.REJECTED)
-                .stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.item-booking-summary")
+public class ItemBookingSummaryProperties {
+    /**
+     * Pause between two passes of the scheduler over the summaries that have gone stale.
+     */
+    private Duration refreshDelay = Duration.ofMinutes(1);
+    /**
+     * Summaries picked up per query while a pass is running.
+     */
+    private int batchSize = 100;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PersistenceException;
+import java.util.List;
+
+/**
+ * Rolls item booking summaries forward as time passes: a next booking that has started, or an approved
+ * booking that has ended, moves the summary's {@code refreshAt} into the past and the next pass recomputes it.
+ * Each summary is refreshed in its own transaction, so one failing item does not hold back the rest.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemBookingSummaryScheduler {
+    private final ItemBookingSummaryService summaryService;
+    private final ItemBookingSummaryProperties properties;
+
+    @Scheduled(fixedDelayString = "${shareit.item-booking-summary.refresh-delay:PT1M}")
+    public void refreshStaleSummaries() {
+        int refreshed = 0;
+        boolean failed = false;
+        List<Long> itemIds;
+        do {
+            itemIds = summaryService.findStaleItemIds(properties.getBatchSize());
+            for (Long itemId : itemIds) {
+                try {
+                    summaryService.refreshSummary(itemId);
+                    refreshed++;
+                } catch (DataAccessException | PersistenceException e) {
+                    // the summary stays stale and is served by recomputing on read until a later pass succeeds
+                    log.warn("booking summary of item with id={} was not refreshed", itemId, e);
+                    failed = true;
+                }
+            }
+        } while (!failed && itemIds.size() == properties.getBatchSize());
+        if (refreshed > 0) {
+            log.info("booking summaries of {} items have been refreshed", refreshed);
+        }
+    }
+}
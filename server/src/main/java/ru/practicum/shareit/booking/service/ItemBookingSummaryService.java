@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ItemBookingSummaryService {
+    Optional<ItemBookingSummary> getSummary(Long itemId);
+
+    Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds);
+
+    void addApprovedBooking(Booking booking);
+
+    List<Long> findStaleItemIds(int limit);
+
+    void refreshSummary(Long itemId);
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ItemBookingSummary} rows in step with the bookings table. An approval is folded into the
+ * stored row; the passing of time is handled by {@link ItemBookingSummaryScheduler}, and a row the scheduler
+ * has not reached yet is recomputed on read, so callers never see a summary past its {@code refreshAt}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private static final Comparator<SummarizedBooking> BY_END = Comparator
+            .comparing(SummarizedBooking::getEnd)
+            .thenComparing(SummarizedBooking::getBookingId);
+    private static final Comparator<SummarizedBooking> BY_START = Comparator
+            .comparing(SummarizedBooking::getStart)
+            .thenComparing(SummarizedBooking::getBookingId);
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<ItemBookingSummary> getSummary(Long itemId) {
+        LocalDateTime time = LocalDateTime.now();
+        return summaryRepository.findById(itemId)
+                .map(summary -> summary.isStale(time) ? computeSummary(itemId, time, summary.getLast()) : summary);
+    }
+
+    @Override
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds) {
+        LocalDateTime time = LocalDateTime.now();
+        return summaryRepository.findAllById(itemIds)
+                .stream()
+                .map(summary -> summary.isStale(time)
+                        ? computeSummary(summary.getItemId(), time, summary.getLast())
+                        : summary)
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+    }
+
+    /**
+     * Must run in the transaction that approves the booking. The item row is locked first, so approvals of
+     * the same item and the scheduler take turns on its summary instead of overwriting each other.
+     */
+    @Override
+    @Transactional
+    public void addApprovedBooking(Booking booking) {
+        Item item = booking.getItem();
+        entityManager.lock(item, LockModeType.PESSIMISTIC_WRITE);
+        LocalDateTime time = LocalDateTime.now();
+        ItemBookingSummary summary = summaryRepository.findById(item.getId())
+                .orElseGet(() -> new ItemBookingSummary(item.getId()));
+        if (summary.isStale(time)) {
+            summaryRepository.save(computeSummary(item.getId(), time, summary.getLast()));
+            return;
+        }
+
+        SummarizedBooking approved = SummarizedBooking.of(booking);
+        if (approved.getEnd().isBefore(time)
+                && (summary.getLast() == null || BY_END.compare(approved, summary.getLast()) > 0)) {
+            summary.setLast(approved);
+        }
+        if (approved.getStart().isAfter(time)
+                && (summary.getNext() == null || BY_START.compare(approved, summary.getNext()) < 0)) {
+            summary.setNext(approved);
+        }
+        if (!approved.getEnd().isBefore(time)) {
+            LocalDateTime changesAt = approved.getStart().isAfter(time) ? approved.getStart() : approved.getEnd();
+            summary.setRefreshAt(earliest(summary.getRefreshAt(), changesAt));
+        }
+        summaryRepository.save(summary);
+    }
+
+    @Override
+    public List<Long> findStaleItemIds(int limit) {
+        return summaryRepository.findStaleItemIds(PageRequest.ofSize(limit), LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional
+    public void refreshSummary(Long itemId) {
+        entityManager.lock(entityManager.getReference(Item.class, itemId), LockModeType.PESSIMISTIC_WRITE);
+        SummarizedBooking storedLast = summaryRepository.findById(itemId)
+                .map(ItemBookingSummary::getLast)
+                .orElse(null);
+        summaryRepository.save(computeSummary(itemId, LocalDateTime.now(), storedLast));
+    }
+
+    /**
+     * {@code storedLast} is kept when the bookings table has no ended booking of the item any more, which
+     * happens once its last booking has been archived.
+     */
+    private ItemBookingSummary computeSummary(Long itemId, LocalDateTime time, SummarizedBooking storedLast) {
+        SummarizedBooking last = bookingRepository
+                .findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDesc(itemId, BookingStatus.APPROVED, time)
+                .map(SummarizedBooking::of)
+                .orElse(storedLast);
+        SummarizedBooking next = bookingRepository
+                .findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAsc(itemId, BookingStatus.APPROVED, time)
+                .map(SummarizedBooking::of)
+                .orElse(null);
+        LocalDateTime earliestEnd = bookingRepository
+                .findEarliestEndNotBefore(itemId, BookingStatus.APPROVED, time)
+                .orElse(null);
+        LocalDateTime refreshAt = earliest(next == null ? null : next.getStart(), earliestEnd);
+        return new ItemBookingSummary(itemId, last, next, refreshAt);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        return Stream.of(first, second)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+}
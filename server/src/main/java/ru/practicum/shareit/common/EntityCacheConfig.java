@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+public class EntityCacheConfig {
+    /**
+     * Every application context gets its own cache manager, so contexts that point at
+     * different databases (as test contexts do) never share cached rows.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        properties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+}
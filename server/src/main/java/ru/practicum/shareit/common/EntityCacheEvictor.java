@@ -0,0 +1,31 @@
+package ru.practicum.shareit.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Drops cached entities whose rows the database changes on its own, through
+ * {@code ON DELETE CASCADE} and {@code ON DELETE SET NULL} foreign keys, which Hibernate never sees.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictAfterCommit(Class<?>... entityTypes) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManagerFactory.getCache();
+                for (Class<?> entityType : entityTypes) {
+                    cache.evict(entityType);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size and time-to-live of the second-level cache regions, keyed by the region name
+ * given in the entity's {@code @Cache} annotation.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.entity-cache")
+public class EntityCacheProperties {
+    private Map<String, Region> regions = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+
+/**
+ * Runs a method call in a child span of the current one. Calls made outside any trace, such as the ones
+ * during startup, are not traced, so they do not start traces of their own.
+ */
+class MethodSpans {
+    private final ObjectProvider<Tracer> tracer;
+
+    MethodSpans(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    Object inSpan(String className, String methodName, Invocation invocation) throws Throwable {
+        Tracer currentTracer = tracer.getIfAvailable();
+        if (currentTracer == null || currentTracer.currentSpan() == null) {
+            return invocation.proceed();
+        }
+        Span span = currentTracer.nextSpan()
+                .name(className + "." + methodName)
+                .tag("class", className)
+                .tag("method", methodName)
+                .start();
+        try (Tracer.SpanInScope ignored = currentTracer.withSpan(span)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    interface Invocation {
+        Object proceed() throws Throwable;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool for writes and one pool per read replica
+ * when {@code shareit.read-replicas.enabled} is set; without it the application keeps the default
+ * {@code spring.datasource} pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shareit.read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("shareit-primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(ReadReplicaProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getInstances().size(); i++) {
+            HikariConfig config = properties.getInstances().get(i);
+            if (config.getPoolName() == null) {
+                config.setPoolName("shareit-replica-" + i);
+            }
+            config.setReadOnly(true);
+            // the pool starts on first use, so a replica that is down at startup does not stop the application
+            HikariDataSource replica = new HikariDataSource();
+            config.copyStateTo(replica);
+            replicas.add(replica);
+        }
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, properties.getLagQuery(), properties.getMaxLag());
+        monitor.checkReplicas();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor));
+    }
+
+    /**
+     * By default a session keeps its first connection until it closes, and with open-in-view that is the
+     * whole request, so a write after a read would reuse the replica connection. Releasing it after every
+     * transaction lets each transaction be routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
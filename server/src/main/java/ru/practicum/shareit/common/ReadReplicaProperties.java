@@ -0,0 +1,32 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that serve {@code @Transactional(readOnly = true)} work. Every instance is a full HikariCP
+ * configuration ({@code jdbc-url}, {@code username}, {@code password}, {@code maximum-pool-size}, ...), so each
+ * replica gets a pool of its own.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.read-replicas")
+public class ReadReplicaProperties {
+    private boolean enabled;
+    private List<HikariConfig> instances = new ArrayList<>();
+    /**
+     * Replicas further behind the primary than this stop receiving reads until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    /**
+     * Returns how far the replica is behind the primary, in seconds.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections everywhere else.
+ * The transaction's read-only flag is only known once it has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers the lookup to the
+ * first statement.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        if (!isReadOnlyTransaction()) {
+            return source.connect(primary);
+        }
+        Optional<DataSource> replica = replicaLagMonitor.nextReplica();
+        if (replica.isEmpty()) {
+            return source.connect(primary);
+        }
+        try {
+            return source.connect(replica.get());
+        } catch (SQLException | PoolInitializationException e) {
+            log.warn("read falls back to the primary: {}", e.getMessage());
+            replicaLagMonitor.markUnavailable(replica.get());
+            return source.connect(primary);
+        }
+    }
+
+    private static boolean isReadOnlyTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks which read replicas may serve reads. A replica is taken out of rotation when its lag exceeds
+ * {@code maxLag} or it cannot be reached, and is put back by the first check that finds it healthy again.
+ * As a {@link MeterBinder} it publishes the hikaricp gauges of the replica pools, which are not beans of their own.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable, MeterBinder {
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    public ReplicaLagMonitor(List<HikariDataSource> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .collect(Collectors.toList());
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.read-replicas.check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            setAvailable(replica, isInSync(replica));
+        }
+    }
+
+    /**
+     * Picks the available replicas in turn; empty when none is available and the read has to go to the primary.
+     */
+    public Optional<DataSource> nextReplica() {
+        List<Replica> available = replicas.stream()
+                .filter(replica -> replica.available)
+                .collect(Collectors.toList());
+        if (available.isEmpty()) {
+            return Optional.empty();
+        }
+        int index = Math.floorMod(nextIndex.getAndIncrement(), available.size());
+        return Optional.of(available.get(index).dataSource);
+    }
+
+    public void markUnavailable(DataSource dataSource) {
+        replicas.stream()
+                .filter(replica -> replica.dataSource == dataSource)
+                .forEach(replica -> setAvailable(replica, false));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replicas.forEach(replica -> replica.dataSource
+                .setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private boolean isInSync(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            if (lagSeconds * 1000 > maxLag.toMillis()) {
+                log.warn("replica {} is {} s behind the primary", replica.dataSource.getPoolName(), lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException | PoolInitializationException e) {
+            log.warn("replica {} is not reachable: {}", replica.dataSource.getPoolName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void setAvailable(Replica replica, boolean available) {
+        if (replica.available != available) {
+            log.info("replica {} {} read traffic", replica.dataSource.getPoolName(),
+                    available ? "receives" : "no longer receives");
+            replica.available = available;
+        }
+    }
+
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean available;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
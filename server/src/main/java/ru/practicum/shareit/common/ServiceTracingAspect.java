@@ -0,0 +1,31 @@
+package ru.practicum.shareit.common;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives every public method of a {@code *ServiceImpl} its own span. The aspect runs outside
+ * {@code @Transactional}, so the span also covers acquiring the connection and committing.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceTracingAspect {
+    private final MethodSpans methodSpans;
+
+    public ServiceTracingAspect(ObjectProvider<Tracer> tracer) {
+        this.methodSpans = new MethodSpans(tracer);
+    }
+
+    @Around("execution(public * ru.practicum.shareit..service.*ServiceImpl.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        return methodSpans.inSpan(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                joinPoint.getSignature().getName(), joinPoint::proceed);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.common;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.exporter.SpanReporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Gives every Spring Data repository call its own span, a child of the service span from
+ * {@link ServiceTracingAspect}, so a trace shows which queries a request ran and how long each took.
+ */
+@Configuration
+public class TracingConfig {
+    /**
+     * Adds a span around every call of a Spring Data repository, named after the repository interface
+     * rather than the {@code CrudRepository} or fragment that declares the method. A repository method that
+     * returns a {@code Stream} is timed until it returns, not until the stream is read.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        MethodSpans methodSpans = new MethodSpans(tracer);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repository) ->
+                                    proxyFactory.addAdvice(0, tracingInterceptor(methodSpans,
+                                            repository.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.tracing.log", name = "enabled", havingValue = "true")
+    public SpanReporter loggingSpanReporter() {
+        return new LoggingSpanReporter();
+    }
+
+    private static MethodInterceptor tracingInterceptor(MethodSpans methodSpans, String repositoryName) {
+        return invocation -> methodSpans.inSpan(repositoryName, invocation.getMethod().getName(),
+                invocation::proceed);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -83,4 +84,22 @@ public class ErrorHandler {
     public ErrorResponse notFoundExceptionHandler(final ItemRequestNotFoundException e) {
         return new ErrorResponse("Entity not found error: ", e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse bookingOverlapExceptionHandler(final BookingOverlapException e) {
+        return new ErrorResponse("BookingOverlap error: ", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse illegalBookingCursorExceptionHandler(final IllegalBookingCursorException e) {
+        return new ErrorResponse("IllegalBookingCursor error: ", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse optimisticLockingFailureExceptionHandler(final OptimisticLockingFailureException e) {
+        return new ErrorResponse("Concurrent modification error: ", e.getMessage());
+    }
+}
@@ -2,13 +2,21 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -21,6 +29,7 @@ import java.util.List;
 @Validated
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
     private static final String USER_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
@@ -31,6 +40,14 @@ public class ItemController {
         return itemService.saveItem(itemDto, ownerId);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public ItemImportReport importItems(@RequestHeader(USER_HEADER) Long ownerId,
+                                        InputStream body) {
+        log.info("the items import has been started");
+        return itemImportService.importItems(new InputStreamReader(body, StandardCharsets.UTF_8), ownerId);
+    }
+
     @PatchMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
     public ItemDto updateItem(@RequestHeader(USER_HEADER) Long ownerId,
@@ -47,12 +64,19 @@ public class ItemController {
         itemService.deleteItem(itemId);
     }
 
+    /**
+     * No {@code @ResponseStatus} here: it would overwrite the 304 set by {@link WebRequest#checkNotModified}.
+     * The owner sees bookings that other users do not, hence {@code Vary} on the user header.
+     */
     @GetMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
     public ItemDetailedDto findItemById(@RequestHeader(USER_HEADER) Long userId,
-                                        @PathVariable Long itemId) {
+                                        @PathVariable Long itemId,
+                                        WebRequest request,
+                                        HttpServletResponse response) {
         log.info("the item with id={} has been got", itemId);
-        return itemService.getItemById(itemId, userId);
+        response.setHeader(HttpHeaders.VARY, USER_HEADER);
+        return itemService.getItemByIdIfModified(itemId, userId, request::checkNotModified)
+                .orElse(null);
     }
 
     @GetMapping
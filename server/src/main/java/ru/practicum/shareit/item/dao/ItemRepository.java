@@ -2,17 +2,51 @@ package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * On PostgreSQL both LIKE conditions are served by the trigram GIN indexes on
+     * {@code lower(name)} and {@code lower(description)}; search strings shorter than three
+     * characters have no trigrams and still fall back to a scan.
+     * Matches are ranked: exact name, name prefix, name substring, then description only.
+     */
     @Query("SELECT i FROM Item i " +
             "WHERE i.isAvailable = TRUE " +
             "AND (LOWER(i.description) LIKE LOWER(CONCAT('%', ?1,'%') )" +
-            "OR LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%') ) ) ")
+            "OR LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%') ) ) " +
+            "ORDER BY CASE " +
+            "WHEN LOWER(i.name) = LOWER(?1) THEN 0 " +
+            "WHEN LOWER(i.name) LIKE LOWER(CONCAT(?1, '%')) THEN 1 " +
+            "WHEN LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) THEN 2 " +
+            "ELSE 3 END, i.id")
     List<Item> findItemsByText(Pageable pageable, String text);
 
-    List<Item> findAllByOwnerId(Pageable pageable, Long id);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDetailedDto(i.id, i.name, i.description, i.isAvailable) " +
+            "FROM Item i " +
+            "WHERE i.owner.id = ?1")
+    List<ItemDetailedDto> findAllByOwnerId(Pageable pageable, Long id);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.isAvailable, i.request.id) " +
+            "FROM Item i " +
+            "WHERE i.request.id IN ?1")
+    List<ItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    /**
+     * Reads the item with {@code SELECT ... FOR UPDATE}. Booking writes that check for overlapping approved
+     * bookings take this lock first, so two of them for one item run one after the other and the second check
+     * sees what the first one committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemRevision;
+
+import java.util.Optional;
+
+public interface ItemRevisionRepository extends JpaRepository<ItemRevision, Long> {
+    @Query("SELECT r.revision FROM ItemRevision r " +
+            "WHERE r.itemId = ?1")
+    Optional<Long> findRevision(Long itemId);
+
+    @Modifying
+    @Query("UPDATE ItemRevision r SET r.revision = r.revision + 1 " +
+            "WHERE r.itemId = ?1")
+    void incrementRevision(Long itemId);
+
+    @Modifying
+    @Query("UPDATE ItemRevision r SET r.revision = r.revision + 1 " +
+            "WHERE r.itemId IN (SELECT c.item.id FROM Comment c WHERE c.author.id = ?1)")
+    void incrementRevisionsCommentedBy(Long authorId);
+}
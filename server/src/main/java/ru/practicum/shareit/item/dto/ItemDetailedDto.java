@@ -19,4 +19,14 @@ public class ItemDetailedDto {
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
     private List<CommentDto> comments;
+
+    /**
+     * Used by the JPQL constructor expression in {@code ItemRepository}; bookings and comments are filled in later.
+     */
+    public ItemDetailedDto(Long id, String name, String description, Boolean available) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+    }
 }
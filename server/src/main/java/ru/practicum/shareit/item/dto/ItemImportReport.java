@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code failed} counts every rejected row, while {@code errors} keeps only
+ * the first ones so the report stays small whatever the size of the upload.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemImportReport {
+    private long imported;
+    private long failed;
+    private List<ItemImportError> errors = new ArrayList<>();
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(ItemImportError error, int maxReportedErrors) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+/**
+ * Change counter behind the ETag of an item. It lives outside the second-level cached {@code items} table, so
+ * it can be bumped with a bulk update without evicting the item; every item gets its row when it is created.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "item_revisions")
+public class ItemRevision {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @MapsId
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    @Column(nullable = false)
+    private long revision;
+
+    public ItemRevision(Item item) {
+        this.item = item;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemRevision that = (ItemRevision) o;
+        return itemId != null && Objects.equals(itemId, that.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
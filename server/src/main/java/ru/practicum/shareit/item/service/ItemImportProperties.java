@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.item-import")
+public class ItemImportProperties {
+    /**
+     * Rows written per transaction.
+     */
+    private int batchSize = 500;
+    private int maxReportedErrors = 1000;
+}
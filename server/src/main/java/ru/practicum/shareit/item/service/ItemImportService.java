@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+import java.io.Reader;
+
+public interface ItemImportService {
+    ItemImportReport importItems(Reader reader, Long ownerId);
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the upload line by line and hands it to {@link ItemService#saveItems} in batches, each in its own
+ * transaction, so at most one batch is held in memory. Deliberately not {@code @Transactional}: a single
+ * transaction would keep every imported item in the persistence context until the end of the upload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ItemImportServiceImpl implements ItemImportService {
+    private final ItemService itemService;
+    private final UserExistenceValidator userExistenceValidator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ItemImportProperties properties;
+
+    @Override
+    public ItemImportReport importItems(Reader reader, Long ownerId) {
+        userExistenceValidator.checkUserExists(ownerId);
+        ItemImportReport report = new ItemImportReport();
+        List<ItemImportRow> batch = new ArrayList<>(properties.getBatchSize());
+
+        try (BufferedReader lines = new BufferedReader(reader)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ItemImportRow row = readRow(line, lineNumber, report);
+                if (row != null) {
+                    batch.add(row);
+                }
+                if (batch.size() == properties.getBatchSize()) {
+                    saveBatch(batch, ownerId, report);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        saveBatch(batch, ownerId, report);
+        log.info("import for user with id={}: {} items imported, {} rows failed",
+                ownerId, report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private ItemImportRow readRow(String line, long lineNumber, ItemImportReport report) {
+        ItemImportRow row;
+        try {
+            row = objectMapper.readValue(line, ItemImportRow.class);
+        } catch (JsonProcessingException e) {
+            reject(report, lineNumber, "malformed row: " + e.getOriginalMessage());
+            return null;
+        }
+        if (row.getLine() == null) {
+            row.setLine(lineNumber);
+        }
+        if (row.getItem() == null) {
+            reject(report, row.getLine(), "item is missing");
+            return null;
+        }
+        return row;
+    }
+
+    private void saveBatch(List<ItemImportRow> batch, Long ownerId, ItemImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            itemService.saveItems(toItemDtos(batch), ownerId);
+            report.addImported(batch.size());
+        } catch (DataAccessException e) {
+            // one bad row rolls the whole batch back, so replay it row by row to tell the good rows from the bad
+            for (ItemImportRow row : batch) {
+                saveRow(row, ownerId, report);
+            }
+        } finally {
+            batch.clear();
+            entityManager.clear();
+        }
+    }
+
+    private void saveRow(ItemImportRow row, Long ownerId, ItemImportReport report) {
+        try {
+            itemService.saveItems(List.of(row.getItem()), ownerId);
+            report.addImported(1);
+        } catch (DataAccessException e) {
+            reject(report, row.getLine(), e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void reject(ItemImportReport report, long lineNumber, String message) {
+        report.addError(new ItemImportError(lineNumber, message), properties.getMaxReportedErrors());
+    }
+
+    private List<ItemDtoFromRequest> toItemDtos(List<ItemImportRow> batch) {
+        return batch.stream()
+                .map(ItemImportRow::getItem)
+                .collect(Collectors.toList());
+    }
+}
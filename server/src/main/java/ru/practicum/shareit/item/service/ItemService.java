@@ -4,16 +4,25 @@ import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.*;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemDto saveItem(ItemDtoFromRequest itemDto, Long ownerId);
 
+    List<ItemDto> saveItems(List<ItemDtoFromRequest> itemDtos, Long ownerId);
+
     ItemDto updateItem(ItemDtoFromRequest itemDto, Long itemId, Long ownerId);
 
     void deleteItem(Long itemId);
 
     ItemDetailedDto getItemById(Long itemId, Long userId);
 
+    /**
+     * Returns the item unless {@code isNotModified} accepts its current ETag, in which case nothing is built.
+     */
+    Optional<ItemDetailedDto> getItemByIdIfModified(Long itemId, Long userId, Predicate<String> isNotModified);
+
     List<ItemDetailedDto> getUserItemsById(Pageable pageable, Long ownerId);
 
     List<ItemDto> getUserItemByText(Pageable pageable, Long ownerId, String text);
@@ -8,23 +8,35 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemRevisionRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.exception.IncorrectParameterException;
 import ru.practicum.shareit.item.exception.NoValidUserToCommentException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRevision;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRevisionRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,9 +45,13 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRevisionRepository itemRevisionRepository;
+    private final ItemRequestRevisionRepository itemRequestRevisionRepository;
 
     @Override
     @Transactional
@@ -46,35 +62,81 @@ public class ItemServiceImpl implements ItemService {
         setItemRequestIfExists(itemDto, item);
         item.setOwner(owner);
         itemRepository.save(item);
+        itemRevisionRepository.save(new ItemRevision(item));
+        incrementRequestRevisions(List.of(item));
         return ItemDtoMapper.toItemDto(item);
     }
 
+    @Override
+    @Transactional
+    public List<ItemDto> saveItems(List<ItemDtoFromRequest> itemDtos, Long ownerId) {
+        User owner = userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException(String.format("user with id=%d not found", ownerId)));
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDtoFromRequest itemDto : itemDtos) {
+            Item item = ItemDtoMapper.toItemFromDto(itemDto);
+            setItemRequestIfExists(itemDto, item);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+        itemRevisionRepository.saveAll(items.stream()
+                .map(ItemRevision::new)
+                .collect(Collectors.toList()));
+        incrementRequestRevisions(items);
+        return items.stream()
+                .map(ItemDtoMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public ItemDto updateItem(ItemDtoFromRequest itemDto, Long itemId, Long ownerId) {
-        checkValidOwner(ownerId);
+        userExistenceValidator.checkUserExists(ownerId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item with id=%d not found", itemId)));
         checkValidOwnerToItem(item, ownerId);
         Item itemToSave = fillItemFields(item, itemDto);
         itemRepository.save(itemToSave);
+        itemRevisionRepository.incrementRevision(itemId);
+        incrementRequestRevisions(List.of(itemToSave));
         return ItemDtoMapper.toItemDto(itemToSave);
     }
 
     @Override
     @Transactional
     public void deleteItem(Long itemId) {
+        itemRepository.findById(itemId).ifPresent(item -> incrementRequestRevisions(List.of(item)));
         itemRepository.deleteById(itemId);
     }
 
     @Override
     public ItemDetailedDto getItemById(Long itemId, Long userId) {
+        return getItemByIdIfModified(itemId, userId, eTag -> false).orElseThrow();
+    }
+
+    /**
+     * The ETag is the item revision, extended for the owner with the ids of the last and next bookings, and
+     * it is checked before comments are read. An item without a revision row gets no ETag at all.
+     */
+    @Override
+    public Optional<ItemDetailedDto> getItemByIdIfModified(Long itemId, Long userId,
+                                                           Predicate<String> isNotModified) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item with id=%d not found", itemId)));
+        Optional<Long> revision = itemRevisionRepository.findRevision(itemId);
         if (isOwner(userId, item)) {
-            return getItemDetailedDto(item);
+            ItemBookingSummary summary = itemBookingSummaryService.getSummary(itemId)
+                    .orElseGet(() -> new ItemBookingSummary(itemId));
+            if (revision.map(value -> toOwnerETag(value, summary)).filter(isNotModified).isPresent()) {
+                return Optional.empty();
+            }
+            return Optional.of(getItemDetailedDto(item, summary));
         }
-        return getItemDetailedDtoWithoutBookings(item);
+        if (revision.map(String::valueOf).filter(isNotModified).isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(getItemDetailedDtoWithoutBookings(item));
     }
 
     private static boolean isOwner(Long userId, Item item) {
@@ -83,11 +145,29 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDetailedDto> getUserItemsById(Pageable pageable, Long ownerId) {
-        List<Item> items = itemRepository.findAllByOwnerId(pageable, ownerId);
-        return items
-                .stream()
-                .map(this::getItemDetailedDto)
+        List<ItemDetailedDto> items = itemRepository.findAllByOwnerId(pageable, ownerId);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(ItemDetailedDto::getId)
                 .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getSummaries(itemIds);
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdInOrderByCreatedDesc(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentDtoMapper::toCommentDto, Collectors.toList())));
+
+        for (ItemDetailedDto item : items) {
+            ItemBookingSummary summary = summaries.get(item.getId());
+            if (summary != null) {
+                item.setLastBooking(toBookingShortDto(summary.getLast()));
+                item.setNextBooking(toBookingShortDto(summary.getNext()));
+            }
+            item.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
+        }
+        return items;
     }
 
     @Override
@@ -111,6 +191,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item with id=%d not found", itemId)));
         Comment comment = commentRepository.save(CommentDtoMapper.toComment(commentDto, item, user));
+        itemRevisionRepository.incrementRevision(itemId);
         return CommentDtoMapper.toCommentDto(comment);
     }
 
@@ -125,32 +206,33 @@ public class ItemServiceImpl implements ItemService {
         return item;
     }
 
-    private void checkValidOwner(Long ownerId) {
-        if (userRepository.findById(ownerId).isEmpty()) {
-            throw new NotFoundException(String.format("user with id=%d not found", ownerId));
-        }
-    }
-
     private void checkValidOwnerToItem(Item item, Long ownerId) {
         if (!isOwner(ownerId, item)) {
             throw new IncorrectParameterException("this user doesn't have this item");
         }
     }
 
-    private BookingShortDto getBookingLast(Item item) {
-        return bookingRepository.findFirstByItemIdAndEndIsBeforeOrderByEndDesc(item.getId(), LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingShortDto)
-                .findFirst()
-                .orElse(null);
+    private void incrementRequestRevisions(List<Item> items) {
+        Set<Long> requestIds = items.stream()
+                .map(Item::getRequest)
+                .filter(Objects::nonNull)
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        if (!requestIds.isEmpty()) {
+            itemRequestRevisionRepository.incrementRevisions(requestIds);
+        }
     }
 
-    private BookingShortDto getBookingNext(Item item) {
-        return bookingRepository.findFirstByItemIdAndStartIsAfter(item.getId(), LocalDateTime.now())
-                .stream()
-                .map(BookingDtoMapper::toBookingShortDto)
-                .findFirst()
-                .orElse(null);
+    private static String toOwnerETag(long revision, ItemBookingSummary summary) {
+        return revision + "-" + toBookingId(summary.getLast()) + "-" + toBookingId(summary.getNext());
+    }
+
+    private static long toBookingId(SummarizedBooking booking) {
+        return booking == null ? 0 : booking.getBookingId();
+    }
+
+    private BookingShortDto toBookingShortDto(SummarizedBooking booking) {
+        return booking == null ? null : BookingDtoMapper.toBookingShortDto(booking);
     }
 
     private List<CommentDto> getItemsComments(Item item) {
@@ -162,16 +244,17 @@ public class ItemServiceImpl implements ItemService {
 
     private void checkUserToValidBookingItem(Long userId, Long itemId) {
         LocalDateTime time = LocalDateTime.now();
-        if (!bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(userId, itemId, time)) {
+        if (!bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(userId, itemId, time)
+                && !bookingRepository.existsArchivedBooking(userId, itemId)) {
             throw new NoValidUserToCommentException(String.format("this user with id=%d does not have access to " +
                     "comment this item with id=%d", userId, itemId));
         }
     }
 
-    private ItemDetailedDto getItemDetailedDto(Item item) {
+    private ItemDetailedDto getItemDetailedDto(Item item, ItemBookingSummary summary) {
         List<CommentDto> comments = getItemsComments(item);
-        BookingShortDto lastBooking = getBookingLast(item);
-        BookingShortDto nextBooking = getBookingNext(item);
+        BookingShortDto lastBooking = toBookingShortDto(summary.getLast());
+        BookingShortDto nextBooking = toBookingShortDto(summary.getNext());
         return ItemDtoMapper.toItemDetailedDto(item, lastBooking, nextBooking, comments);
     }
 
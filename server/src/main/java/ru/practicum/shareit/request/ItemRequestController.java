@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
@@ -44,9 +45,10 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    @ResponseStatus(HttpStatus.OK)
     public ItemRequestDto getItemRequestById(@PathVariable Long requestId,
-                                             @RequestHeader(USER_HEADER) Long userId) {
-        return itemRequestService.getRequestById(requestId, userId);
+                                             @RequestHeader(USER_HEADER) Long userId,
+                                             WebRequest request) {
+        return itemRequestService.getRequestByIdIfModified(requestId, userId, request::checkNotModified)
+                .orElse(null);
     }
 }
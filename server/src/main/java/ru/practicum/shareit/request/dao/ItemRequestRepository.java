@@ -2,12 +2,22 @@ package ru.practicum.shareit.request.dao;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequesterId(Long userId);
+    String ITEM_REQUEST_DTO_SELECT = "SELECT new ru.practicum.shareit.request.dto.ItemRequestDto(" +
+            "r.id, r.description, r.created) " +
+            "FROM ItemRequest r ";
 
-    List<ItemRequest> findAllByRequesterIdNot(Pageable pageable,Long userId);
+    @Query(ITEM_REQUEST_DTO_SELECT +
+            "WHERE r.requester.id = ?1")
+    List<ItemRequestDto> findAllByRequesterId(Long userId);
+
+    @Query(ITEM_REQUEST_DTO_SELECT +
+            "WHERE r.requester.id <> ?1")
+    List<ItemRequestDto> findAllByRequesterIdNot(Pageable pageable, Long userId);
 }
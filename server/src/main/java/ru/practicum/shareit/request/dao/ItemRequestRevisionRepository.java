@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.model.ItemRequestRevision;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ItemRequestRevisionRepository extends JpaRepository<ItemRequestRevision, Long> {
+    @Query("SELECT r.revision FROM ItemRequestRevision r " +
+            "WHERE r.requestId = ?1")
+    Optional<Long> findRevision(Long requestId);
+
+    @Modifying
+    @Query("UPDATE ItemRequestRevision r SET r.revision = r.revision + 1 " +
+            "WHERE r.requestId IN ?1")
+    void incrementRevisions(Collection<Long> requestIds);
+}
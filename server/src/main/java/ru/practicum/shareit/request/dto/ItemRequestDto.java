@@ -21,4 +21,13 @@ public class ItemRequestDto {
     private String description;
     private LocalDateTime created;
     private List<ItemDto> items = new ArrayList<>();
+
+    /**
+     * Used by the JPQL constructor expressions in {@code ItemRequestRepository}; items are filled in later.
+     */
+    public ItemRequestDto(Long id, String description, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.created = created;
+    }
 }
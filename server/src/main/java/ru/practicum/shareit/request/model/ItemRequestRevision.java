@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+/**
+ * Change counter behind the ETag of an item request, bumped whenever an item answering the request changes.
+ * Like {@link ru.practicum.shareit.item.model.ItemRevision} it is kept out of the cached request table, and
+ * every request gets its row when it is created.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "item_request_revisions")
+public class ItemRequestRevision {
+    @Id
+    @Column(name = "item_request_id")
+    private Long requestId;
+
+    @MapsId
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_request_id")
+    private ItemRequest itemRequest;
+
+    @Column(nullable = false)
+    private long revision;
+
+    public ItemRequestRevision(ItemRequest itemRequest) {
+        this.itemRequest = itemRequest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemRequestRevision that = (ItemRequestRevision) o;
+        return requestId != null && Objects.equals(requestId, that.requestId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
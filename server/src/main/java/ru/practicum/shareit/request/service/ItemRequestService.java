@@ -5,6 +5,8 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface ItemRequestService {
     ItemRequestDto addRequest(ItemRequestDtoFromRequest itemRequestDto, Long userId);
@@ -13,5 +15,10 @@ public interface ItemRequestService {
 
     ItemRequestDto getRequestById(Long requestId, Long userId);
 
+    /**
+     * Returns the request unless {@code isNotModified} accepts its current ETag, in which case nothing is built.
+     */
+    Optional<ItemRequestDto> getRequestByIdIfModified(Long requestId, Long userId, Predicate<String> isNotModified);
+
     List<ItemRequestDto> getAllRequests(Pageable pageable, Long userId);
 }
@@ -7,19 +7,24 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.dto.ItemDtoMapper;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRevisionRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDtoMapper;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestRevision;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +33,9 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final ItemRepository itemRepository;
+    private final ItemRequestRevisionRepository itemRequestRevisionRepository;
 
     @Override
     @Transactional
@@ -37,53 +44,59 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .orElseThrow(() -> new NotFoundException(String.format("user with id=%d not found", userId)));
         ItemRequest itemRequest = ItemRequestDtoMapper.toItemRequest(itemRequestDto, user);
         itemRequestRepository.save(itemRequest);
+        itemRequestRevisionRepository.save(new ItemRequestRevision(itemRequest));
         return ItemRequestDtoMapper.toDto(itemRequest);
     }
 
     @Override
     public List<ItemRequestDto> getUserRequest(Long userId) {
-        checkUserExists(userId);
-        return itemRequestRepository.findAllByRequesterId(userId)
-                .stream()
-                .map(itemRequest -> ItemRequestDtoMapper.toDto(itemRequest, getItemsToItemRequest()))
-                .collect(Collectors.toList());
+        userExistenceValidator.checkUserExists(userId);
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterId(userId));
     }
 
     @Override
     public ItemRequestDto getRequestById(Long requestId, Long userId) {
-        checkUserExists(userId);
+        return getRequestByIdIfModified(requestId, userId, eTag -> false).orElseThrow();
+    }
+
+    @Override
+    public Optional<ItemRequestDto> getRequestByIdIfModified(Long requestId, Long userId,
+                                                             Predicate<String> isNotModified) {
+        userExistenceValidator.checkUserExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFoundException(String.format("itemRequest with id=%d not found",
                         requestId)));
-        return ItemRequestDtoMapper.toDto(itemRequest, getItemsToItemRequest());
+        if (itemRequestRevisionRepository.findRevision(requestId).map(String::valueOf).filter(isNotModified)
+                .isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(ItemRequestDtoMapper.toDto(itemRequest, getItemsToItemRequest(itemRequest.getId())));
     }
 
     @Override
     public List<ItemRequestDto> getAllRequests(Pageable pageable, Long userId) {
-        return itemRequestRepository.findAllByRequesterIdNot(pageable, userId)
-                .stream()
-                .map(itemRequest -> ItemRequestDtoMapper.toDto(itemRequest, getItemsToItemRequest()))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdNot(pageable, userId));
     }
 
-    private void checkUserExists(Long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
-            throw new NotFoundException(String.format("user with id=%d not found", userId));
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequestDto> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
         }
-    }
 
-    private List<ItemDto> getItemsToItemRequest() {
-        List<Item> items = itemRepository.findAll();
-        List<Item> itemsToItemRequest = new ArrayList<>();
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
 
-        for (Item item : items) {
-            if (item.getRequest() != null) {
-                itemsToItemRequest.add(item);
-            }
+        for (ItemRequestDto itemRequest : itemRequests) {
+            itemRequest.setItems(items.getOrDefault(itemRequest.getId(), new ArrayList<>()));
         }
+        return itemRequests;
+    }
 
-        return itemsToItemRequest.stream()
-                .map(ItemDtoMapper::toItemDto)
-                .collect(Collectors.toList());
+    private List<ItemDto> getItemsToItemRequest(Long requestId) {
+        return itemRepository.findAllByRequestIdIn(List.of(requestId));
     }
 }
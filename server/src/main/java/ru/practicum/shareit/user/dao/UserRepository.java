@@ -1,7 +1,15 @@
 package ru.practicum.shareit.user.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) " +
+            "FROM User u")
+    List<UserDto> findAllUserDtos(Pageable pageable);
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Guard for service methods that only need to know the user exists.
+ * It answers from the second-level cache when the user is there and otherwise runs an
+ * existence query, so no {@link User} entity is built for the check.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExistenceValidator {
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void checkUserExists(Long userId) {
+        if (!entityManagerFactory.getCache().contains(User.class, userId) && !userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("user with id=%d not found", userId));
+        }
+    }
+}
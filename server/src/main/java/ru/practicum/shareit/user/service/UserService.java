@@ -13,6 +13,8 @@ public interface UserService {
 
     UserDto saveUser(UserDtoFromRequest userDto);
 
+    List<UserDto> saveUsers(List<UserDtoFromRequest> userDtos);
+
     UserDto updateUser(UserDtoFromRequest userDto, Long userId);
 
     void deleteUser(Long userId);
@@ -4,7 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.EntityCacheEvictor;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dao.ItemRevisionRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoFromRequest;
@@ -19,13 +23,12 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ItemRevisionRepository itemRevisionRepository;
 
     @Override
     public List<UserDto> getAllUsers(Pageable pageable) {
-        return userRepository.findAll(pageable)
-                .stream()
-                .map(UserDtoMapper::toUserDto)
-                .collect(Collectors.toList());
+        return userRepository.findAllUserDtos(pageable);
     }
 
     @Override
@@ -43,11 +46,26 @@ public class UserServiceImpl implements UserService {
         return UserDtoMapper.toUserDto(savedUser);
     }
 
+    @Override
+    @Transactional
+    public List<UserDto> saveUsers(List<UserDtoFromRequest> userDtos) {
+        List<User> users = userDtos.stream()
+                .map(UserDtoMapper::toUserFromDto)
+                .collect(Collectors.toList());
+        return userRepository.saveAll(users)
+                .stream()
+                .map(UserDtoMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public UserDto updateUser(UserDtoFromRequest userDto, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("user with id=%d not found", userId)));
+        if (userDto.getName() != null && !userDto.getName().equals(user.getName())) {
+            itemRevisionRepository.incrementRevisionsCommentedBy(userId);
+        }
         User updatedUser = userRepository.save(UserDtoMapper.toUserFromDto(userDto, user));
         return UserDtoMapper.toUserDto(updatedUser);
     }
@@ -55,7 +73,9 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long userId) {
+        itemRevisionRepository.incrementRevisionsCommentedBy(userId);
         userRepository.deleteById(userId);
+        entityCacheEvictor.evictAfterCommit(Item.class, ItemRequest.class);
     }
 }
 
@@ -0,0 +1,6 @@
+-- H2 has no declarative partitioning. These stand-ins keep the signatures of the PostgreSQL functions:
+-- no partition is ever created and archiving moves the old rows one by one.
+
+CREATE ALIAS IF NOT EXISTS create_booking_partitions FOR 'ru.practicum.shareit.booking.dao.H2BookingPartitions.createPartitions';
+
+CREATE ALIAS IF NOT EXISTS archive_bookings FOR 'ru.practicum.shareit.booking.dao.H2BookingPartitions.archiveBookings';
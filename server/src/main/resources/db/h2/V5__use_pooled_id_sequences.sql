@@ -0,0 +1,22 @@
+-- Hibernate allocates ids in blocks of 50 (pooled-lo), which keeps JDBC insert batching enabled.
+-- Column defaults draw from the same sequences, so rows inserted outside Hibernate never collide with a block.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN user_id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN user_id SET DEFAULT NEXT VALUE FOR users_seq;
+
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE item_requests ALTER COLUMN item_request_id DROP IDENTITY;
+ALTER TABLE item_requests ALTER COLUMN item_request_id SET DEFAULT NEXT VALUE FOR item_requests_seq;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE items ALTER COLUMN item_id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN item_id SET DEFAULT NEXT VALUE FOR items_seq;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN booking_id SET DEFAULT NEXT VALUE FOR bookings_seq;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE comments ALTER COLUMN comment_id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN comment_id SET DEFAULT NEXT VALUE FOR comments_seq;
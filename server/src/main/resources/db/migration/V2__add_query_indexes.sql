@@ -0,0 +1,19 @@
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS item_requests_requester_id_idx ON item_requests (requester_id, created_time DESC);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_created_time_idx ON comments (item_id, created_time DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_start_time_idx ON bookings (user_id, start_time DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_end_time_idx ON bookings (user_id, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_status_idx ON bookings (user_id, status);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_time_idx ON bookings (item_id, start_time DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_end_time_idx ON bookings (item_id, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_idx ON bookings (item_id, status);
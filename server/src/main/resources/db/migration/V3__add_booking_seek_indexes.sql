@@ -0,0 +1,7 @@
+DROP INDEX IF EXISTS bookings_user_id_start_time_idx;
+
+DROP INDEX IF EXISTS bookings_item_id_start_time_idx;
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_start_time_id_idx ON bookings (user_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_time_id_idx ON bookings (item_id, start_time DESC, booking_id DESC);
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS item_booking_summaries
+(
+    item_id         BIGINT PRIMARY KEY REFERENCES items (item_id) ON DELETE CASCADE,
+    last_booking_id BIGINT,
+    last_booker_id  BIGINT,
+    last_start_time TIMESTAMP WITHOUT TIME ZONE,
+    last_end_time   TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_id BIGINT,
+    next_booker_id  BIGINT,
+    next_start_time TIMESTAMP WITHOUT TIME ZONE,
+    next_end_time   TIMESTAMP WITHOUT TIME ZONE,
+    refresh_at      TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_summaries_refresh_at_idx ON item_booking_summaries (refresh_at);
+
+INSERT INTO item_booking_summaries (item_id, refresh_at)
+SELECT DISTINCT item_id, LOCALTIMESTAMP
+FROM bookings
+WHERE status = 'APPROVED'
+  AND item_id IS NOT NULL;
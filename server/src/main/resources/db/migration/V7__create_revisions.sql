@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS item_revisions
+(
+    item_id  BIGINT PRIMARY KEY REFERENCES items (item_id) ON DELETE CASCADE,
+    revision BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS item_request_revisions
+(
+    item_request_id BIGINT PRIMARY KEY REFERENCES item_requests (item_request_id) ON DELETE CASCADE,
+    revision        BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS comments_author_id_idx ON comments (author_id);
+
+INSERT INTO item_revisions (item_id, revision)
+SELECT item_id, 0
+FROM items;
+
+INSERT INTO item_request_revisions (item_request_id, revision)
+SELECT item_request_id, 0
+FROM item_requests;
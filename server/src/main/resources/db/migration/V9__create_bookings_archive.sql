@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id    BIGINT PRIMARY KEY,
+    start_time    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id       BIGINT,
+    user_id       BIGINT,
+    status        VARCHAR(20)                 NOT NULL,
+    version       BIGINT                      NOT NULL,
+    archived_time TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS bookings_archive_user_id_item_id_idx ON bookings_archive (user_id, item_id);
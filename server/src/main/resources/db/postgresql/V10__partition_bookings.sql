@@ -0,0 +1,120 @@
+-- Bookings are range-partitioned by end_time, one partition per month. Rows outside every monthly partition land
+-- in bookings_default and are moved out when their month's partition is created. Partitions whose month lies
+-- wholly before the retention cutoff are copied to bookings_archive and dropped. The primary key has to include
+-- the partition key; booking ids stay unique because they all come from bookings_seq.
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER SEQUENCE bookings_seq OWNED BY NONE;
+
+CREATE TABLE bookings
+(
+    booking_id BIGINT                      NOT NULL DEFAULT nextval('bookings_seq'),
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT                      REFERENCES items (item_id) ON DELETE SET NULL,
+    user_id    BIGINT                      REFERENCES users (user_id) ON DELETE SET NULL,
+    status     VARCHAR(20)                 NOT NULL,
+    version    BIGINT                      NOT NULL DEFAULT 0,
+    PRIMARY KEY (booking_id, end_time)
+) PARTITION BY RANGE (end_time);
+
+ALTER SEQUENCE bookings_seq OWNED BY bookings.booking_id;
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_booking_partitions(from_month DATE, to_month DATE) RETURNS INTEGER AS
+$$
+DECLARE
+    month_start    DATE    := date_trunc('month', from_month)::DATE;
+    month_end      DATE;
+    partition_name TEXT;
+    created        INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('bookings_partitions'));
+    WHILE month_start <= to_month
+        LOOP
+            month_end := (month_start + INTERVAL '1 month')::DATE;
+            partition_name := 'bookings_' || to_char(month_start, 'YYYY_MM');
+            IF to_regclass(partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', partition_name);
+                EXECUTE format('WITH moved AS (DELETE FROM bookings_default '
+                                   'WHERE end_time >= %L AND end_time < %L RETURNING *) '
+                                   'INSERT INTO %I SELECT * FROM moved', month_start, month_end, partition_name);
+                EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, month_end);
+                created := created + 1;
+            END IF;
+            month_start := month_end;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rows are copied while each old partition is only locked against writes; bookings itself is locked exclusively
+-- just for the detach and drop at the end.
+CREATE OR REPLACE FUNCTION archive_bookings(cutoff TIMESTAMP) RETURNS BIGINT AS
+$$
+DECLARE
+    old_partitions TEXT[];
+    partition_name TEXT;
+    moved          BIGINT;
+    archived       BIGINT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('bookings_partitions'));
+    SELECT COALESCE(array_agg(c.relname::TEXT ORDER BY c.relname), '{}')
+    INTO old_partitions
+    FROM pg_inherits i
+             JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'bookings'::REGCLASS
+      AND c.relname ~ '^bookings_[0-9]{4}_[0-9]{2}$'
+      AND to_date(substring(c.relname FROM 10), 'YYYY_MM') + INTERVAL '1 month' <= cutoff;
+
+    FOREACH partition_name IN ARRAY old_partitions
+        LOOP
+            EXECUTE format('LOCK TABLE %I IN SHARE MODE', partition_name);
+            EXECUTE format('INSERT INTO bookings_archive '
+                               '(booking_id, start_time, end_time, item_id, user_id, status, version) '
+                               'SELECT booking_id, start_time, end_time, item_id, user_id, status, version '
+                               'FROM %I', partition_name);
+            GET DIAGNOSTICS moved = ROW_COUNT;
+            archived := archived + moved;
+        END LOOP;
+
+    WITH moved_rows AS (DELETE FROM bookings_default WHERE end_time < cutoff RETURNING *)
+    INSERT
+    INTO bookings_archive (booking_id, start_time, end_time, item_id, user_id, status, version)
+    SELECT booking_id, start_time, end_time, item_id, user_id, status, version
+    FROM moved_rows;
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    archived := archived + moved;
+
+    FOREACH partition_name IN ARRAY old_partitions
+        LOOP
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+        END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_booking_partitions(
+               COALESCE((SELECT MIN(end_time) FROM bookings_unpartitioned)::DATE, CURRENT_DATE),
+               (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE);
+
+INSERT INTO bookings (booking_id, start_time, end_time, item_id, user_id, status, version)
+SELECT booking_id, start_time, end_time, item_id, user_id, status, version
+FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_start_time_id_idx ON bookings (user_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_time_id_idx ON bookings (item_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_end_time_idx ON bookings (user_id, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_user_id_status_idx ON bookings (user_id, status);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_end_time_idx ON bookings (item_id, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_idx ON bookings (item_id, status);
@@ -0,0 +1,27 @@
+-- Hibernate allocates ids in blocks of 50 (pooled-lo), which keeps JDBC insert batching enabled.
+-- Column defaults draw from the same sequences, so rows inserted outside Hibernate never collide with a block.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.user_id;
+SELECT setval('users_seq', COALESCE(MAX(user_id), 0) + 1, false) FROM users;
+ALTER TABLE users ALTER COLUMN user_id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN user_id SET DEFAULT nextval('users_seq');
+
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq INCREMENT BY 50 OWNED BY item_requests.item_request_id;
+SELECT setval('item_requests_seq', COALESCE(MAX(item_request_id), 0) + 1, false) FROM item_requests;
+ALTER TABLE item_requests ALTER COLUMN item_request_id DROP IDENTITY IF EXISTS;
+ALTER TABLE item_requests ALTER COLUMN item_request_id SET DEFAULT nextval('item_requests_seq');
+
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50 OWNED BY items.item_id;
+SELECT setval('items_seq', COALESCE(MAX(item_id), 0) + 1, false) FROM items;
+ALTER TABLE items ALTER COLUMN item_id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN item_id SET DEFAULT nextval('items_seq');
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50 OWNED BY bookings.booking_id;
+SELECT setval('bookings_seq', COALESCE(MAX(booking_id), 0) + 1, false) FROM bookings;
+ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN booking_id SET DEFAULT nextval('bookings_seq');
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq INCREMENT BY 50 OWNED BY comments.comment_id;
+SELECT setval('comments_seq', COALESCE(MAX(comment_id), 0) + 1, false) FROM comments;
+ALTER TABLE comments ALTER COLUMN comment_id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN comment_id SET DEFAULT nextval('comments_seq');
@@ -0,0 +1,207 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.CommentDtoMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads a page from every list query the way the services do. Booking, item, request and user lists are
+ * read as DTO projections and must not load a single entity; comment rows span several authors, so a
+ * lazily loaded association would show up as extra statements on top of the single page query.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RepositoryQueryCountTest {
+    private static final int ROWS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private final MyPageRequest page = MyPageRequest.of(0, 10);
+    private final PageRequest cursorPage = PageRequest.ofSize(10);
+    private final BookingCursor cursor = new BookingCursor(time.plusDays(3), Long.MAX_VALUE);
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long requestId;
+
+    @BeforeEach
+    public void setUp() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        User booker = entityManager.persist(new User(null, "booker", "booker@email.com"));
+        ItemRequest request = entityManager.persist(new ItemRequest(null, "description", booker, time));
+        Item commentedItem = entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, owner, request));
+
+        for (int i = 0; i < ROWS; i++) {
+            Item item = entityManager.persist(new Item(null, "name" + i, "description", Boolean.TRUE, owner, null));
+            User author = entityManager.persist(new User(null, "author" + i, "author" + i + "@email.com"));
+            for (BookingStatus status : List.of(BookingStatus.WAITING, BookingStatus.REJECTED)) {
+                entityManager.persist(new Booking(null, time.minusDays(2), time.minusDays(1), item, booker, status));
+                entityManager.persist(new Booking(null, time.minusDays(1), time.plusDays(1), item, booker, status));
+                entityManager.persist(new Booking(null, time.plusDays(1), time.plusDays(2), item, booker, status));
+            }
+            entityManager.persist(new Comment(null, "text", commentedItem, author, time.minusDays(i)));
+        }
+        entityManager.flush();
+
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+        itemId = commentedItem.getId();
+        requestId = request.getId();
+    }
+
+    @Test
+    void bookingListQueriesWhenPageIsReadAndThenEachCostsOneStatementAndNoEntity() {
+        Map<String, Supplier<List<BookingDto>>> queries = new LinkedHashMap<>();
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.OWNER ? ownerId : bookerId;
+            for (State state : State.values()) {
+                queries.put("findBookings " + role + " " + state + " by offset",
+                        () -> bookingRepository.findBookings(page, role, userId, state, BookingCursor.FIRST, time));
+                queries.put("findBookings " + role + " " + state + " by cursor",
+                        () -> bookingRepository.findBookings(cursorPage, role, userId, state, cursor, time));
+            }
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Supplier<List<BookingDto>>> query : queries.entrySet()) {
+            Statistics statistics = clearSession();
+
+            List<BookingDto> bookings = query.getValue().get();
+
+            assertTrue(bookings.size() >= ROWS, query.getKey() + " returned " + bookings.size() + " rows");
+            if (statistics.getPrepareStatementCount() != 1 || statistics.getEntityLoadCount() != 0) {
+                failures.add(query.getKey() + ": " + statistics.getPrepareStatementCount() + " statements, "
+                        + statistics.getEntityLoadCount() + " entities");
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join(System.lineSeparator(), failures));
+    }
+
+    @Test
+    void findBookingsWhenEveryRoleAndStateIsReadTwiceAndThenSecondRoundReusesQueryPlans() {
+        for (BookingRole role : BookingRole.values()) {
+            for (State state : State.values()) {
+                bookingRepository.findBookings(page, role, ownerId, state, BookingCursor.FIRST, time);
+            }
+        }
+        Statistics statistics = clearSession();
+
+        for (BookingRole role : BookingRole.values()) {
+            for (State state : State.values()) {
+                bookingRepository.findBookings(cursorPage, role, bookerId, state, cursor, time.plusHours(1));
+            }
+        }
+
+        assertEquals(0, statistics.getQueryPlanCacheMissCount());
+        assertEquals(BookingRole.values().length * State.values().length, statistics.getQueryPlanCacheHitCount());
+    }
+
+    @Test
+    void listProjectionsWhenPageIsReadAndThenNoEntityIsLoaded() {
+        Map<String, Supplier<List<?>>> queries = new LinkedHashMap<>();
+        queries.put("findAllByOwnerId", () -> itemRepository.findAllByOwnerId(page, ownerId));
+        queries.put("findAllByRequestIdIn", () -> itemRepository.findAllByRequestIdIn(List.of(requestId)));
+        queries.put("findAllByRequesterId", () -> itemRequestRepository.findAllByRequesterId(bookerId));
+        queries.put("findAllByRequesterIdNot", () -> itemRequestRepository.findAllByRequesterIdNot(page, ownerId));
+        queries.put("findAllUserDtos", () -> userRepository.findAllUserDtos(page));
+
+        for (Map.Entry<String, Supplier<List<?>>> query : queries.entrySet()) {
+            Statistics statistics = clearSession();
+
+            List<?> rows = query.getValue().get();
+
+            assertFalse(rows.isEmpty(), query.getKey() + " returned no rows");
+            assertEquals(1, statistics.getPrepareStatementCount(), query.getKey());
+            assertEquals(0, statistics.getEntityLoadCount(), query.getKey());
+        }
+    }
+
+    @Test
+    void exportStreamsWhenHistoryIsReadAndThenCostOneStatementAndNoEntity() {
+        Map<String, Supplier<Stream<BookingDto>>> queries = new LinkedHashMap<>();
+        queries.put("streamBookerBookings", () -> bookingRepository.streamBookerBookings(bookerId));
+        queries.put("streamOwnerBookings", () -> bookingRepository.streamOwnerBookings(ownerId));
+
+        for (Map.Entry<String, Supplier<Stream<BookingDto>>> query : queries.entrySet()) {
+            Statistics statistics = clearSession();
+
+            try (Stream<BookingDto> bookings = query.getValue().get()) {
+                assertEquals(6 * ROWS, bookings.count(), query.getKey());
+            }
+            assertEquals(1, statistics.getPrepareStatementCount(), query.getKey());
+            assertEquals(0, statistics.getEntityLoadCount(), query.getKey());
+        }
+    }
+
+    @Test
+    void findAllByItemIdOrderByCreatedDescWhenCommentsAreMappedAndThenCostsOneStatement() {
+        Statistics statistics = clearSession();
+
+        List<Comment> comments = commentRepository.findAllByItemIdOrderByCreatedDesc(itemId);
+        comments.forEach(CommentDtoMapper::toCommentDto);
+
+        assertEquals(ROWS, comments.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics clearSession() {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
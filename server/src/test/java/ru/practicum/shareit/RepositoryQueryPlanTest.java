@@ -0,0 +1,209 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemRevisionRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every indexed repository query against a seeded database and fails if
+ * the plan H2 chooses for it contains a full table scan.
+ * {@code ItemRepository.findItemsByText} is left out on purpose: its leading-wildcard LIKE is served by
+ * PostgreSQL trigram indexes that H2 does not have. {@code ItemRequestRepository.findAllByRequesterIdNot}
+ * is left out too: an inequality cannot be served by a B-tree index.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.RepositoryQueryPlanTest$SqlRecorder")
+class RepositoryQueryPlanTest {
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRevisionRepository itemRevisionRepository;
+
+    private final LocalDateTime time = LocalDateTime.now();
+    private final MyPageRequest page = MyPageRequest.of(0, 10);
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long requestId;
+
+    @BeforeEach
+    public void setUp() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        User booker = entityManager.persist(new User(null, "booker", "booker@email.com"));
+        ItemRequest request = entityManager.persist(new ItemRequest(null, "description", booker, time));
+        Item item = null;
+
+        for (int i = 0; i < 50; i++) {
+            item = entityManager.persist(new Item(null, "name" + i, "description", Boolean.TRUE, owner, request));
+            entityManager.persist(new Booking(null, time.minusDays(i + 2), time.minusDays(i + 1), item, booker,
+                    BookingStatus.APPROVED));
+            entityManager.persist(new Booking(null, time.plusDays(i + 1), time.plusDays(i + 2), item, booker,
+                    BookingStatus.WAITING));
+            entityManager.persist(new Comment(null, "text", item, booker, time));
+            entityManager.persist(new ItemBookingSummary(item.getId(), null, null, time.plusDays(i + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+        itemId = item.getId();
+        requestId = request.getId();
+    }
+
+    @Test
+    void repositoryQueriesWhenDatasetIsSeededAndThenNoneUsesTableScan() throws SQLException {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.OWNER ? ownerId : bookerId;
+            for (State state : State.values()) {
+                queries.put("findBookings " + role + " " + state,
+                        () -> bookingRepository.findBookings(page, role, userId, state, BookingCursor.FIRST, time));
+            }
+        }
+        queries.put("streamBookerBookings",
+                () -> bookingRepository.streamBookerBookings(bookerId).close());
+        queries.put("streamOwnerBookings",
+                () -> bookingRepository.streamOwnerBookings(ownerId).close());
+        queries.put("findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDesc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDesc(
+                        itemId, BookingStatus.APPROVED, time));
+        queries.put("findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAsc",
+                () -> bookingRepository.findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAsc(
+                        itemId, BookingStatus.APPROVED, time));
+        queries.put("findEarliestEndNotBefore",
+                () -> bookingRepository.findEarliestEndNotBefore(itemId, BookingStatus.APPROVED, time));
+        queries.put("findStaleItemIds",
+                () -> itemBookingSummaryRepository.findStaleItemIds(page, time));
+        queries.put("existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore",
+                () -> bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                        itemId, BookingStatus.APPROVED, time, time.plusDays(1)));
+        queries.put("existsByBookerIdAndItemIdAndEndIsBefore",
+                () -> bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(bookerId, itemId, time));
+        queries.put("findAllByOwnerId",
+                () -> itemRepository.findAllByOwnerId(page, ownerId));
+        queries.put("findAllByRequestIdIn",
+                () -> itemRepository.findAllByRequestIdIn(List.of(requestId)));
+        queries.put("findAllByItemIdOrderByCreatedDesc",
+                () -> commentRepository.findAllByItemIdOrderByCreatedDesc(itemId));
+        queries.put("findAllByItemIdInOrderByCreatedDesc",
+                () -> commentRepository.findAllByItemIdInOrderByCreatedDesc(List.of(itemId)));
+        queries.put("findAllByRequesterId",
+                () -> itemRequestRepository.findAllByRequesterId(bookerId));
+        queries.put("incrementRevisionsCommentedBy",
+                () -> itemRevisionRepository.incrementRevisionsCommentedBy(bookerId));
+
+        List<String> tableScans = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            SqlRecorder.STATEMENTS.clear();
+            query.getValue().run();
+            assertFalse(SqlRecorder.STATEMENTS.isEmpty(), query.getKey() + " did not reach the database");
+
+            for (String sql : SqlRecorder.STATEMENTS) {
+                String plan = explain(sql);
+                if (plan.contains(TABLE_SCAN)) {
+                    tableScans.add(query.getKey() + ": " + plan);
+                }
+            }
+        }
+
+        assertTrue(tableScans.isEmpty(), String.join(System.lineSeparator(), tableScans));
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private Object sampleValue(int sqlType) {
+        switch (sqlType) {
+            case Types.TIMESTAMP:
+                return time;
+            case Types.VARCHAR:
+                return BookingStatus.WAITING.name();
+            case Types.BOOLEAN:
+                return Boolean.TRUE;
+            default:
+                return 1L;
+        }
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
@@ -17,14 +18,20 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -226,6 +233,99 @@ class BookingControllerTest {
         assertEquals(bookings, bookingDtoFromJson);
     }
 
+    @SneakyThrows
+    @Test
+    void getBookingsByBookerWhenCursorIsEmptyAndPageIsFullThenReturnedNextCursor() {
+        Long userId = 1L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(30);
+        BookingDto bookingDto = createBookingDto(2L, start, end);
+        BookingDto bookingDto2 = createBookingDto(1L, start, end);
+
+        when(bookingService.getBookingsByBooker(BookingCursor.FIRST, 2, userId, "ALL"))
+                .thenReturn(List.of(bookingDto, bookingDto2));
+
+        mockMvc.perform(get("/bookings")
+                        .queryParam("cursor", "")
+                        .queryParam("size", "2")
+                        .header(userHeader, userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.after(bookingDto2).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingsByOwnerWhenCursorIsNotValidThenStatusIsBadRequest() {
+        mockMvc.perform(get("/bookings/owner")
+                        .queryParam("cursor", "not-a-cursor")
+                        .header(userHeader, 1L))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsByBookerWhenFormatIsNdjsonThenEveryBookingIsWrittenOnItsOwnLine() {
+        Long userId = 1L;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        BookingDto first = new BookingDto(2L, start, start.plusDays(1), BookingStatus.APPROVED, 5L, "drill", userId);
+        BookingDto second = new BookingDto(1L, start.minusDays(3), start.minusDays(2), BookingStatus.WAITING, 6L,
+                "saw", userId);
+
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(bookingService).exportBookingsByBooker(eq(userId), any());
+
+        String result = mockMvc.perform(get("/bookings/export")
+                        .header(userHeader, userId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n",
+                result);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsByOwnerWhenFormatIsCsvThenHeaderAndQuotedRowsAreWritten() {
+        Long userId = 1L;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        BookingDto booking = new BookingDto(2L, start, start.plusDays(1), BookingStatus.APPROVED, 5L,
+                "drill, \"pro\"", 3L);
+
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(1);
+            consumer.accept(booking);
+            return null;
+        }).when(bookingService).exportBookingsByOwner(eq(userId), any());
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .queryParam("format", "CSV")
+                        .header(userHeader, userId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,start,end,status,itemId,itemName,bookerId\n"
+                        + "2,2030-01-01T10:00:00,2030-01-02T10:00:00,APPROVED,5,\"drill, \"\"pro\"\"\",3\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportBookingsByBookerWhenUserNotFoundThenStatusIsNotFound() {
+        doThrow(new NotFoundException("user with id=1 not found"))
+                .when(bookingService).exportBookingsByBooker(eq(1L), any());
+
+        mockMvc.perform(get("/bookings/export")
+                        .header(userHeader, 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     private BookingDto createBookingDto(long bookingId, LocalDateTime start, LocalDateTime end) {
         BookingDto bookingDto = new BookingDto();
         bookingDto.setId(bookingId);
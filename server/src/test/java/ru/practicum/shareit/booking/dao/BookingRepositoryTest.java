@@ -4,14 +4,24 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,184 +33,214 @@ class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private final Long itemId = 1L;
-    private final LocalDateTime time = LocalDateTime.now();
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     private final User owner = new User(2L, "ownerName", "owner@email.com");
     private final User booker = new User(1L, "bookerName", "booker@email.com");
     private final Item item = new Item(itemId, "name", "description", Boolean.TRUE, owner, null);
 
     @AfterEach
     public void tearDown() {
-        bookingRepository.deleteAll();
+        bookingRepository.deleteAllInBatch();
     }
 
     @Test
-    void findBookingByBookerIdOrderByStartDescTest() {
+    void findBookingsWhenBookerAndStateIsAllTest() {
         Booking booking = new Booking(1L, time.plusDays(5), time.plusDays(15), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingByBookerIdOrderByStartDesc(MyPageRequest.of(0, 5), bookerId);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 5), BookingRole.BOOKER, bookerId, State.ALL,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
 
     }
 
     @Test
-    void findBookingByBookerIdAndStartIsBeforeAndEndIsAfterTest() {
+    void findBookingsWhenBookerAndStateIsCurrentTest() {
         Booking booking = new Booking(2L, time.minusDays(5), time.plusDays(15), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingByBookerIdAndStartIsBeforeAndEndIsAfter(MyPageRequest.of(0, 20), bookerId, time, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.BOOKER, bookerId, State.CURRENT,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByBookerIdAndEndIsBeforeTest() {
+    void findBookingsWhenBookerAndStateIsPastTest() {
         Booking booking = new Booking(3L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByBookerIdAndEndIsBefore(MyPageRequest.of(0, 20), bookerId, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.BOOKER, bookerId, State.PAST,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByBookerIdAndStartIsAfterOrderByStartDescTest() {
+    void findBookingsWhenBookerAndStateIsFutureTest() {
         Booking booking = new Booking(4L, time.plusDays(5), time.plusDays(12), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(MyPageRequest.of(0, 20), bookerId, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.BOOKER, bookerId, State.FUTURE,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByBookerIdAndStatusEqualsWhenStatusIsWaitingAndThenReturnedListOfWaitingBookingTest() {
+    void findBookingsWhenBookerAndStateIsWaitingTest() {
         Booking booking = new Booking(5L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByBookerIdAndStatusEquals(MyPageRequest.of(0, 20), bookerId, BookingStatus.WAITING);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.BOOKER, bookerId, State.WAITING,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByBookerIdAndStatusEqualsWhenStatusIsRejectedAndThenReturnedListOfRejectedBookingTest() {
+    void findBookingsWhenBookerAndStateIsRejectedTest() {
         Booking booking = new Booking(6L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.REJECTED);
         Booking savedBooking = bookingRepository.save(booking);
         Long bookerId = savedBooking.getBooker().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByBookerIdAndStatusEquals(MyPageRequest.of(0, 20), bookerId, BookingStatus.REJECTED);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.BOOKER, bookerId, State.REJECTED,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdOrderByStartDescTest() {
+    void findBookingsWhenOwnerAndStateIsAllTest() {
         Booking booking = new Booking(7L, time.plusDays(5), time.plusDays(15), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdOrderByStartDesc(MyPageRequest.of(0, 20), ownerId);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.ALL,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdAndStartIsBeforeAndEndIsAfterTest() {
+    void findBookingsWhenOwnerAndStateIsCurrentTest() {
         Booking booking = new Booking(8L, time.minusDays(5), time.plusDays(15), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdAndStartIsBeforeAndEndIsAfter(MyPageRequest.of(0, 20), ownerId, time, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.CURRENT,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdAndEndIsBeforeTest() {
+    void findBookingsWhenOwnerAndStateIsPastTest() {
         Booking booking = new Booking(9L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdAndEndIsBefore(MyPageRequest.of(0, 20), ownerId, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.PAST,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdAndStartIsAfterOrderByStartDescTest() {
+    void findBookingsWhenOwnerAndStateIsFutureTest() {
         Booking booking = new Booking(10L, time.plusDays(5), time.plusDays(10), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdAndStartIsAfterOrderByStartDesc(MyPageRequest.of(0, 20), ownerId, time);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.FUTURE,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdAndStatusEqualsWhenStatusIsWaitingAndThenReturnedListOfWaitingBookingTest() {
+    void findBookingsWhenOwnerAndStateIsWaitingTest() {
         Booking booking = new Booking(11L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdAndStatusEquals(MyPageRequest.of(0, 20), ownerId, BookingStatus.WAITING);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.WAITING,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findBookingsByItemOwnerIdAndStatusEqualsWhenStatusIsRejectedAndThenReturnedListOfRejectedBookingTest() {
+    void findBookingsWhenOwnerAndStateIsRejectedTest() {
         Booking booking = new Booking(12L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.REJECTED);
         Booking savedBooking = bookingRepository.save(booking);
         Long ownerId = savedBooking.getItem().getOwner().getId();
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItemOwnerIdAndStatusEquals(MyPageRequest.of(0, 20), ownerId, BookingStatus.REJECTED);
+        List<BookingDto> bookings = bookingRepository
+                .findBookings(MyPageRequest.of(0, 20), BookingRole.OWNER, ownerId, State.REJECTED,
+                        BookingCursor.FIRST, time);
 
         assertEquals(1, bookings.size());
-        assertEquals(savedBooking, bookings.get(0));
+        assertBookingDto(savedBooking, bookings.get(0));
     }
 
     @Test
-    void findFirstByItemIdAndEndIsBeforeOrderByEndDescTest() {
-        Booking booking = new Booking(13L, time.minusDays(5), time.minusDays(4), item, booker, BookingStatus.WAITING);
-        Booking savedBooking = bookingRepository.save(booking);
-        Long itemId = savedBooking.getItem().getId();
-        Booking bookingFromRepository = bookingRepository
-                .findFirstByItemIdAndEndIsBeforeOrderByEndDesc(itemId, time).get();
+    void findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDescTest() {
+        Item persistedItem = persistItem();
+        persistBooking(persistedItem, time.minusDays(9), time.minusDays(8), BookingStatus.APPROVED);
+        Booking latest = persistBooking(persistedItem, time.minusDays(5), time.minusDays(4), BookingStatus.APPROVED);
+        persistBooking(persistedItem, time.minusDays(3), time.minusDays(2), BookingStatus.REJECTED);
+
+        Booking bookingFromRepository = bookingRepository.findFirstByItemIdAndStatusAndEndIsBeforeOrderByEndDescIdDesc(
+                persistedItem.getId(), BookingStatus.APPROVED, time).orElseThrow();
 
-        assertNotNull(bookingFromRepository);
-        assertEquals(savedBooking, bookingFromRepository);
+        assertEquals(latest, bookingFromRepository);
     }
 
     @Test
-    void findFirstByItemIdAndStartIsAfterTest() {
-        Booking booking = new Booking(14L, time.plusDays(5), time.plusDays(15), item, booker, BookingStatus.WAITING);
-        Booking savedBooking = bookingRepository.save(booking);
-        Long itemId = savedBooking.getItem().getId();
-        Booking bookingFromRepository = bookingRepository
-                .findFirstByItemIdAndStartIsAfter(itemId, time).get();
+    void findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAscWhenLaterBookingIsSavedFirstTest() {
+        Item persistedItem = persistItem();
+        persistBooking(persistedItem, time.plusDays(10), time.plusDays(11), BookingStatus.APPROVED);
+        Booking nearest = persistBooking(persistedItem, time.plusDays(5), time.plusDays(6), BookingStatus.APPROVED);
+        persistBooking(persistedItem, time.plusDays(1), time.plusDays(2), BookingStatus.WAITING);
+
+        Booking bookingFromRepository = bookingRepository.findFirstByItemIdAndStatusAndStartIsAfterOrderByStartAscIdAsc(
+                persistedItem.getId(), BookingStatus.APPROVED, time).orElseThrow();
+
+        assertEquals(nearest, bookingFromRepository);
+    }
 
-        assertNotNull(bookingFromRepository);
-        assertEquals(savedBooking, bookingFromRepository);
+    @Test
+    void findEarliestEndNotBeforeTest() {
+        Item persistedItem = persistItem();
+        persistBooking(persistedItem, time.minusDays(5), time.minusDays(4), BookingStatus.APPROVED);
+        persistBooking(persistedItem, time.minusDays(1), time.plusDays(3), BookingStatus.APPROVED);
+        persistBooking(persistedItem, time.minusDays(1), time.plusDays(1), BookingStatus.WAITING);
+
+        assertEquals(time.plusDays(3), bookingRepository.findEarliestEndNotBefore(
+                persistedItem.getId(), BookingStatus.APPROVED, time).orElseThrow());
+        assertTrue(bookingRepository.findEarliestEndNotBefore(
+                persistedItem.getId(), BookingStatus.APPROVED, time.plusDays(4)).isEmpty());
     }
 
     @Test
@@ -215,4 +255,164 @@ class BookingRepositoryTest {
 
         assertTrue(bookingIsExists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void existsByItemIdAndStatusAndEndIsAfterAndStartIsBeforeTest() {
+        LocalDateTime time = this.time.truncatedTo(ChronoUnit.SECONDS);
+        Booking booking = new Booking(16L, time.plusDays(5), time.plusDays(10), item, booker, BookingStatus.APPROVED);
+        Booking savedBooking = bookingRepository.save(booking);
+        Long itemId = savedBooking.getItem().getId();
+
+        boolean overlapsInside = bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, time.plusDays(6), time.plusDays(7));
+        boolean overlapsStart = bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, time.plusDays(1), time.plusDays(6));
+        boolean adjacent = bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, time.plusDays(10), time.plusDays(12));
+        boolean waitingOverlaps = bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.WAITING, time.plusDays(6), time.plusDays(7));
+
+        assertTrue(overlapsInside);
+        assertTrue(overlapsStart);
+        assertFalse(adjacent);
+        assertFalse(waitingOverlaps);
+    }
+
+    @Test
+    void findBookingsWhenCursorIsGivenAndStartTimesAreEqualAndThenPagesFollowIdOrder() {
+        LocalDateTime start = time.truncatedTo(ChronoUnit.SECONDS).plusDays(5);
+        User savedOwner = entityManager.persist(new User(null, "cursorOwner", "cursorOwner@email.com"));
+        User savedBooker = entityManager.persist(new User(null, "cursorBooker", "cursorBooker@email.com"));
+        Item savedItem = entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, savedOwner, null));
+        Booking earliest = bookingRepository.save(
+                new Booking(null, start.minusDays(1), start, savedItem, savedBooker, BookingStatus.WAITING));
+        Booking first = bookingRepository.save(
+                new Booking(null, start, start.plusDays(1), savedItem, savedBooker, BookingStatus.WAITING));
+        Booking second = bookingRepository.save(
+                new Booking(null, start, start.plusDays(2), savedItem, savedBooker, BookingStatus.WAITING));
+        Long bookerId = savedBooker.getId();
+
+        List<BookingDto> firstPage = bookingRepository.findBookings(PageRequest.ofSize(2), BookingRole.BOOKER, bookerId,
+                State.ALL, BookingCursor.FIRST, time);
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDto> secondPage = bookingRepository.findBookings(PageRequest.ofSize(2), BookingRole.BOOKER, bookerId,
+                State.ALL, BookingCursor.after(last), time);
+
+        assertEquals(List.of(second.getId(), first.getId()), toIds(firstPage));
+        assertEquals(List.of(earliest.getId()), toIds(secondPage));
+    }
+
+    @Test
+    void findBookingsWhenOwnerPagesThroughStatusByOffsetAndThenRowsFollowStartAndIdOrder() {
+        Item savedItem = persistItem();
+        Booking later = persistBooking(savedItem, time.plusDays(3), time.plusDays(4), BookingStatus.REJECTED);
+        Booking earlier = persistBooking(savedItem, time.plusDays(1), time.plusDays(2), BookingStatus.REJECTED);
+        Booking sameStart = persistBooking(savedItem, time.plusDays(3), time.plusDays(5), BookingStatus.REJECTED);
+        persistBooking(savedItem, time.plusDays(2), time.plusDays(3), BookingStatus.WAITING);
+        Long ownerId = savedItem.getOwner().getId();
+
+        List<BookingDto> firstPage = bookingRepository.findBookings(MyPageRequest.of(0, 2), BookingRole.OWNER,
+                ownerId, State.REJECTED, BookingCursor.FIRST, time);
+        List<BookingDto> secondPage = bookingRepository.findBookings(MyPageRequest.of(2, 2), BookingRole.OWNER,
+                ownerId, State.REJECTED, BookingCursor.FIRST, time);
+
+        assertEquals(List.of(sameStart.getId(), later.getId()), toIds(firstPage));
+        assertEquals(List.of(earlier.getId()), toIds(secondPage));
+    }
+
+    @Test
+    void streamOwnerBookingsWhenStartTimesAreEqualAndThenRowsFollowStartAndIdOrder() {
+        LocalDateTime start = time.truncatedTo(ChronoUnit.SECONDS).plusDays(5);
+        User savedOwner = entityManager.persist(new User(null, "streamOwner", "streamOwner@email.com"));
+        User savedBooker = entityManager.persist(new User(null, "streamBooker", "streamBooker@email.com"));
+        Item savedItem = entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, savedOwner, null));
+        Booking earliest = bookingRepository.save(
+                new Booking(null, start.minusDays(1), start, savedItem, savedBooker, BookingStatus.WAITING));
+        Booking first = bookingRepository.save(
+                new Booking(null, start, start.plusDays(1), savedItem, savedBooker, BookingStatus.APPROVED));
+        Booking second = bookingRepository.save(
+                new Booking(null, start, start.plusDays(2), savedItem, savedBooker, BookingStatus.REJECTED));
+
+        List<BookingDto> ownerBookings;
+        try (Stream<BookingDto> bookings = bookingRepository.streamOwnerBookings(savedOwner.getId())) {
+            ownerBookings = bookings.collect(Collectors.toList());
+        }
+        List<BookingDto> bookerBookings;
+        try (Stream<BookingDto> bookings = bookingRepository.streamBookerBookings(savedBooker.getId())) {
+            bookerBookings = bookings.collect(Collectors.toList());
+        }
+
+        assertEquals(List.of(second.getId(), first.getId(), earliest.getId()), toIds(ownerBookings));
+        assertEquals(toIds(ownerBookings), toIds(bookerBookings));
+        assertBookingDto(second, ownerBookings.get(0));
+    }
+
+    @Test
+    void approveIfWaitingWhenOwnerApprovesWaitingBookingAndThenStatusAndVersionAreUpdated() {
+        Item savedItem = persistItem();
+        Booking booking = persistBooking(savedItem, time.plusDays(1), time.plusDays(2), BookingStatus.WAITING);
+        entityManager.flush();
+
+        assertEquals(1, bookingRepository.approveIfWaiting(booking.getId(), savedItem.getOwner().getId()));
+        assertEquals(0, bookingRepository.rejectIfWaiting(booking.getId(), savedItem.getOwner().getId()));
+        entityManager.clear();
+
+        Booking updated = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        assertEquals(booking.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void approveIfWaitingWhenApprovedBookingOverlapsOrUserIsNotOwnerAndThenNothingIsUpdated() {
+        Item savedItem = persistItem();
+        persistBooking(savedItem, time.plusDays(1), time.plusDays(3), BookingStatus.APPROVED);
+        Booking overlapping = persistBooking(savedItem, time.plusDays(2), time.plusDays(4), BookingStatus.WAITING);
+        Booking following = persistBooking(savedItem, time.plusDays(3), time.plusDays(4), BookingStatus.WAITING);
+        entityManager.flush();
+        Long ownerId = savedItem.getOwner().getId();
+
+        assertEquals(0, bookingRepository.approveIfWaiting(overlapping.getId(), ownerId));
+        assertEquals(0, bookingRepository.approveIfWaiting(following.getId(), ownerId + 1));
+        assertEquals(0, bookingRepository.rejectIfWaiting(following.getId(), ownerId + 1));
+        assertEquals(1, bookingRepository.approveIfWaiting(following.getId(), ownerId));
+    }
+
+    @Test
+    void saveWhenBookingWasUpdatedSinceItWasReadAndThenOptimisticLockingFails() {
+        Item savedItem = persistItem();
+        Booking booking = persistBooking(savedItem, time.plusDays(1), time.plusDays(2), BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.detach(booking);
+        bookingRepository.rejectIfWaiting(booking.getId(), savedItem.getOwner().getId());
+
+        booking.setStatus(BookingStatus.APPROVED);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(booking));
+    }
+
+    private static List<Long> toIds(List<BookingDto> bookings) {
+        return bookings.stream()
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static void assertBookingDto(Booking expected, BookingDto actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getStart(), actual.getStart());
+        assertEquals(expected.getEnd(), actual.getEnd());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getItem().getId(), actual.getItem().getId());
+        assertEquals(expected.getItem().getName(), actual.getItem().getName());
+        assertEquals(expected.getBooker().getId(), actual.getBooker().getId());
+    }
+
+    private Item persistItem() {
+        User persistedOwner = entityManager.persist(new User(null, "itemOwner", "item.owner@email.com"));
+        return entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, persistedOwner, null));
+    }
+
+    private Booking persistBooking(Item bookedItem, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        User persistedBooker = entityManager.find(User.class, bookedItem.getOwner().getId());
+        return entityManager.persist(new Booking(null, start, end, bookedItem, persistedBooker, status));
+    }
+}
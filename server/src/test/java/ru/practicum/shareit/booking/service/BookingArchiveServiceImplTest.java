@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "shareit.booking-archive.retention=P1M")
+@Import({BookingArchiveServiceImpl.class, BookingArchiveScheduler.class})
+@EnableConfigurationProperties(BookingArchiveProperties.class)
+class BookingArchiveServiceImplTest {
+    @Autowired
+    private BookingArchiveService archiveService;
+
+    @Autowired
+    private BookingArchiveScheduler archiveScheduler;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    public void setUp() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        booker = entityManager.persist(new User(null, "booker", "booker@email.com"));
+        item = entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, owner, null));
+    }
+
+    @Test
+    void archiveBookingsWhenBookingsEndedBeforeRetentionAndThenOnlyTheyAreMovedToArchive() {
+        Booking old = persistBooking(time.minusMonths(4), time.minusMonths(3));
+        Booking recent = persistBooking(time.minusDays(2), time.minusDays(1));
+        Booking future = persistBooking(time.plusDays(1), time.plusDays(2));
+        entityManager.flush();
+
+        long archived = archiveService.archiveBookings();
+        entityManager.clear();
+
+        assertEquals(1, archived);
+        assertTrue(bookingRepository.findById(old.getId()).isEmpty());
+        assertTrue(bookingRepository.findById(recent.getId()).isPresent());
+        assertTrue(bookingRepository.findById(future.getId()).isPresent());
+        assertTrue(bookingRepository.existsArchivedBooking(booker.getId(), item.getId()));
+    }
+
+    @Test
+    void maintainPartitionsWhenNothingIsPastRetentionAndThenBookingsStayInPlace() {
+        Booking recent = persistBooking(time.minusDays(2), time.minusDays(1));
+        entityManager.flush();
+
+        archiveScheduler.maintainPartitions();
+        entityManager.clear();
+
+        assertEquals(0, archiveService.createPartitions());
+        assertTrue(bookingRepository.findById(recent.getId()).isPresent());
+        assertFalse(bookingRepository.existsArchivedBooking(booker.getId(), item.getId()));
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end) {
+        return entityManager.persist(new Booking(null, start, end, item, booker, BookingStatus.APPROVED));
+    }
+}
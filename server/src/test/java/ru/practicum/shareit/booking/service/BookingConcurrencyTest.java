@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoFromRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Approves two overlapping bookings of one item from two threads at once, in committed transactions.
+ */
+@SpringBootTest
+class BookingConcurrencyTest {
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final LocalDateTime time = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS);
+    private UserDto owner;
+    private UserDto firstBooker;
+    private UserDto secondBooker;
+    private ItemDto item;
+
+    @BeforeEach
+    public void setUp() {
+        owner = userService.saveUser(new UserDtoFromRequest("owner", "concurrent-owner@email.com"));
+        firstBooker = userService.saveUser(new UserDtoFromRequest("first", "concurrent-first@email.com"));
+        secondBooker = userService.saveUser(new UserDtoFromRequest("second", "concurrent-second@email.com"));
+        item = itemService.saveItem(new ItemDtoFromRequest("name", "description", Boolean.TRUE, null),
+                owner.getId());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        Stream.of(owner, firstBooker, secondBooker).forEach(user -> userService.deleteUser(user.getId()));
+    }
+
+    @Test
+    void bookingConfirmationWhenOverlappingBookingsAreApprovedConcurrentlyAndThenOnlyOneIsApproved()
+            throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime start = time.plusDays(round * 10L);
+            BookingDto first = bookingService.addBooking(firstBooker.getId(),
+                    new BookingDtoFromRequest(item.getId(), start, start.plusDays(2)));
+            BookingDto second = bookingService.addBooking(secondBooker.getId(),
+                    new BookingDtoFromRequest(item.getId(), start.plusDays(1), start.plusDays(3)));
+
+            approveConcurrently(first.getId(), second.getId());
+
+            List<BookingStatus> statuses = Stream.of(first, second)
+                    .map(booking -> bookingService.getBookingById(owner.getId(), booking.getId()).getStatus())
+                    .collect(Collectors.toList());
+            assertEquals(1, statuses.stream().filter(BookingStatus.APPROVED::equals).count(),
+                    "round " + round + ": " + statuses);
+        }
+    }
+
+    private void approveConcurrently(Long... bookingIds) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> approvals = Stream.of(bookingIds)
+                .map(bookingId -> executor.submit(() -> {
+                    start.await();
+                    return bookingService.bookingConfirmation(owner.getId(), bookingId, Boolean.TRUE);
+                }))
+                .collect(Collectors.toList());
+        start.countDown();
+        for (Future<?> approval : approvals) {
+            try {
+                approval.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // the losing approval fails on the overlap or lock check; only the outcome in the table counts
+            }
+        }
+    }
+}
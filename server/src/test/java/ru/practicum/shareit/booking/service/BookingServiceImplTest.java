@@ -8,14 +8,19 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoFromRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
 import ru.practicum.shareit.booking.exception.*;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.ItemRepository;
@@ -23,10 +28,14 @@ import ru.practicum.shareit.item.exception.IncorrectParameterException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,12 +48,18 @@ class BookingServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceValidator userExistenceValidator;
+
     @Mock
     private BookingRepository bookingRepository;
 
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
     private final Long itemId = 1L;
     private final Long userId = 1L;
     private final Long ownerId = 2L;
@@ -88,10 +103,10 @@ class BookingServiceImplTest {
     @Test
     void addBookingWhenPositiveCaseAndThenAddBookingAndReturnedBookingDto() {
         BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
-        Item item1 = itemRepository.findById(itemId).get();
+        Item item1 = itemRepository.findByIdForUpdate(itemId).get();
         User user1 = userRepository.findById(userId).get();
         Booking booking = BookingDtoMapper.fromBookingDto(bookingDto, user1, item1);
         when(bookingRepository.save(booking)).thenReturn(booking);
@@ -105,7 +120,7 @@ class BookingServiceImplTest {
         assertEquals(booking.getEnd(), bookingDto1.getEnd());
 
         InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
         inOrder.verify(userRepository, times(1)).findById(userId);
         inOrder.verify(bookingRepository, times(1)).save(booking);
     }
@@ -113,7 +128,7 @@ class BookingServiceImplTest {
     @Test
     void addBookingWhenItemNotFoundAndThenThrowNotFoundException() {
         BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.empty());
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         User user1 = userRepository.findById(userId).get();
@@ -126,7 +141,7 @@ class BookingServiceImplTest {
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
         InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
         inOrder.verify(userRepository, never()).findById(userId);
         inOrder.verify(bookingRepository, never()).save(booking);
     }
@@ -134,10 +149,10 @@ class BookingServiceImplTest {
     @Test
     void addBookingWhenUserNotFoundAndThenThrowNotFoundException() {
         BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
-        Item item1 = itemRepository.findById(itemId).get();
+        Item item1 = itemRepository.findByIdForUpdate(itemId).get();
         Booking booking = BookingDtoMapper.fromBookingDto(bookingDto, user, item1);
         when(bookingRepository.save(booking)).thenReturn(booking);
 
@@ -147,7 +162,7 @@ class BookingServiceImplTest {
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
         InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
         inOrder.verify(userRepository, times(1)).findById(userId);
         inOrder.verify(bookingRepository, never()).save(booking);
     }
@@ -156,7 +171,7 @@ class BookingServiceImplTest {
     void addBookingWhenUserIsOwnerAndThenThrowUserAlreadyItemOwnerException() {
         BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
         item.setOwner(user);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         Booking booking = BookingDtoMapper.fromBookingDto(bookingDto, user, item);
@@ -168,7 +183,7 @@ class BookingServiceImplTest {
 
         assertEquals(UserAlreadyItemOwnerException.class, userAlreadyItemOwnerException.getClass());
         InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
         inOrder.verify(userRepository, times(1)).findById(userId);
         inOrder.verify(bookingRepository, never()).save(booking);
     }
@@ -177,7 +192,7 @@ class BookingServiceImplTest {
     void addBookingWhenItemIsNotAvailableAndItemNotAvailableException() {
         BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
         item.setIsAvailable(false);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         Booking booking = BookingDtoMapper.fromBookingDto(bookingDto, user, item);
@@ -189,70 +204,113 @@ class BookingServiceImplTest {
 
         assertEquals(ItemNotAvailableException.class, itemNotAvailableException.getClass());
         InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
         inOrder.verify(userRepository, times(1)).findById(userId);
         inOrder.verify(bookingRepository, never()).save(booking);
     }
 
+    @Test
+    void addBookingWhenApprovedBookingOverlapsAndThenThrowBookingOverlapException() {
+        BookingDtoFromRequest bookingDto = new BookingDtoFromRequest(item.getId(), start, end);
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, start, end)).thenReturn(Boolean.TRUE);
+
+        BookingOverlapException bookingOverlapException = assertThrows(BookingOverlapException.class,
+                () -> bookingService.addBooking(userId, bookingDto));
+
+        assertEquals(BookingOverlapException.class, bookingOverlapException.getClass());
+        verify(bookingRepository, times(1))
+                .existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(itemId, BookingStatus.APPROVED, start, end);
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void bookingConfirmationWhenPositiveCaseAndThenBookingStatusIsApprovedAndReturnedBookingDto() {
-        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.APPROVED);
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(itemId));
+        when(bookingRepository.approveIfWaiting(bookingId, ownerId)).thenReturn(1);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-
-        when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingDto bookingDto = bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE);
         assertNotNull(bookingDto);
         assertEquals(bookingDto.getStatus(), BookingStatus.APPROVED);
 
-        verify(bookingRepository, times(1)).findById(bookingId);
-        verify(userRepository, times(1)).findById(ownerId);
+        InOrder inOrder = inOrder(itemRepository, bookingRepository);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
+        inOrder.verify(bookingRepository, times(1)).approveIfWaiting(bookingId, ownerId);
+
+        verify(userExistenceValidator, never()).checkUserExists(ownerId);
+        verify(bookingRepository, never()).save(any());
+        verify(itemBookingSummaryService, times(1)).addApprovedBooking(booking);
     }
 
     @Test
     void bookingConfirmationWhenPositiveCaseAndThenBookingStatusIsRejectedAndReturnedBookingDto() {
-        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
+        when(bookingRepository.rejectIfWaiting(bookingId, ownerId)).thenReturn(1);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-
-        when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingDto bookingDto = bookingService.bookingConfirmation(ownerId, bookingId, Boolean.FALSE);
         assertNotNull(bookingDto);
         assertEquals(bookingDto.getStatus(), BookingStatus.REJECTED);
 
-        verify(bookingRepository, times(1)).findById(bookingId);
-        verify(userRepository, times(1)).findById(ownerId);
+        verify(bookingRepository, never()).approveIfWaiting(any(), any());
+        verify(itemRepository, never()).findByIdForUpdate(any());
+        verify(itemBookingSummaryService, never()).addApprovedBooking(any());
     }
 
     @Test
-    void bookingConfirmationWhenBookingNotFoundAndThenThrowBookingNotFoundException() {
+    void bookingConfirmationWhenApprovedBookingOverlapsAndThenThrowBookingOverlapException() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(
+                itemId, BookingStatus.APPROVED, start, end)).thenReturn(Boolean.TRUE);
+
+        BookingOverlapException bookingOverlapException = assertThrows(BookingOverlapException.class,
+                () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
+
+        assertEquals(BookingOverlapException.class, bookingOverlapException.getClass());
+        verify(itemBookingSummaryService, never()).addApprovedBooking(any());
+    }
+
+    @Test
+    void bookingConfirmationWhenRejectionIsNotAppliedAndThenOverlapIsNotChecked() {
+        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertThrows(BookingAlreadyApprovedException.class,
+                () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.FALSE));
+
+        verify(bookingRepository, never()).existsByItemIdAndStatusAndEndIsAfterAndStartIsBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void bookingConfirmationWhenBookingNotFoundAndThenThrowBookingNotFoundException() {
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         BookingNotFoundException bookingNotFoundException = assertThrows(BookingNotFoundException.class,
                 () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
 
         assertEquals(BookingNotFoundException.class, bookingNotFoundException.getClass());
+        verify(bookingRepository, times(1)).approveIfWaiting(bookingId, ownerId);
         verify(bookingRepository, times(1)).findById(bookingId);
         verify(userRepository, never()).findById(ownerId);
-        verify(bookingRepository, never()).save(booking);
     }
 
     @Test
     void bookingConfirmationWhenBookingOwnerIsNotValidAndThenThrowBookingNotFoundException() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(ownerId);
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
         verify(bookingRepository, times(1)).findById(bookingId);
-        verify(userRepository, times(1)).findById(ownerId);
-        verify(bookingRepository, never()).save(booking);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
     }
 
     @Test
@@ -260,36 +318,41 @@ class BookingServiceImplTest {
         item.setOwner(user);
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(user));
 
         IncorrectParameterException incorrectParameterException = assertThrows(IncorrectParameterException.class,
                 () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
 
         assertEquals(IncorrectParameterException.class, incorrectParameterException.getClass());
         verify(bookingRepository, times(1)).findById(bookingId);
-        verify(userRepository, times(1)).findById(ownerId);
-        verify(bookingRepository, never()).save(booking);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
     }
 
     @Test
     void bookingConfirmationWhenBookingAlreadyApprovedAndThenThrowBookingAlreadyApprovedException() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.APPROVED);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(user));
 
         BookingAlreadyApprovedException bookingAlreadyApprovedException = assertThrows(BookingAlreadyApprovedException.class,
                 () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
 
         assertEquals(BookingAlreadyApprovedException.class, bookingAlreadyApprovedException.getClass());
         verify(bookingRepository, times(1)).findById(bookingId);
-        verify(userRepository, times(1)).findById(ownerId);
-        verify(bookingRepository, never()).save(booking);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
+        verify(itemBookingSummaryService, never()).addApprovedBooking(any());
+    }
+
+    @Test
+    void bookingConfirmationWhenUpdateLosesRaceAndEveryCheckPassesAndThenThrowOptimisticLockingFailure() {
+        Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> bookingService.bookingConfirmation(ownerId, bookingId, Boolean.TRUE));
     }
 
     @Test
     void getBookingByIdWhenPositiveCaseAndThenBookingGotAndReturnedBookingDto() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingDto bookingDto = bookingService.getBookingById(ownerId, bookingId);
@@ -298,32 +361,31 @@ class BookingServiceImplTest {
         assertEquals(bookingDto.getStart(), booking.getStart());
         assertEquals(bookingDto.getEnd(), booking.getEnd());
 
-        verify(userRepository, times(1)).findById(ownerId);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
     @Test
     void getBookingByIdWhenUserNotFoundAndThenThrowBookingNotFoundException() {
-        when(userRepository.findById(ownerId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(ownerId);
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingById(ownerId, bookingId));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
-        verify(userRepository, times(1)).findById(ownerId);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
         verify(bookingRepository, never()).findById(bookingId);
     }
 
     @Test
     void getBookingByIdWhenBookingNotFoundAndThenThrowBookingNotFoundException() {
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         BookingNotFoundException bookingNotFoundException = assertThrows(BookingNotFoundException.class,
                 () -> bookingService.getBookingById(ownerId, bookingId));
 
         assertEquals(BookingNotFoundException.class, bookingNotFoundException.getClass());
-        verify(userRepository, times(1)).findById(ownerId);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -331,14 +393,13 @@ class BookingServiceImplTest {
     void getBookingByIdWhenOwnerOrBookerNotFoundAndThenThrowBookingNotFoundException() {
         item.setOwner(user);
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingNotFoundException bookingNotFoundException = assertThrows(BookingNotFoundException.class,
                 () -> bookingService.getBookingById(ownerId, bookingId));
 
         assertEquals(BookingNotFoundException.class, bookingNotFoundException.getClass());
-        verify(userRepository, times(1)).findById(ownerId);
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
         verify(bookingRepository, times(1)).findById(bookingId);
     }
 
@@ -346,10 +407,11 @@ class BookingServiceImplTest {
     void getBookingsByBookerWhenPositiveCaseAndStateIsAllAndThenReturnedListOfAllBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdOrderByStartDesc(any(Pageable.class), anyLong()))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.ALL), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
 
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(Pageable.ofSize(20), userId, "ALL");
@@ -362,11 +424,11 @@ class BookingServiceImplTest {
     void getBookingsByBookerWhenPositiveCaseAndStateIsCurrentAndThenReturnedListOfCurrentBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByBookerIdAndStartIsBeforeAndEndIsAfter(any(Pageable.class), anyLong(),
-                any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.CURRENT), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "CURRENT");
 
@@ -378,10 +440,11 @@ class BookingServiceImplTest {
     void getBookingsByBookerWhenPositiveCaseAndStateIsPASTAndThenReturnedListOfPASTBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByBookerIdAndEndIsBefore(any(Pageable.class), anyLong(), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.PAST), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "PAST");
 
@@ -393,10 +456,11 @@ class BookingServiceImplTest {
     void getBookingsByBookerWhenPositiveCaseAndStateIsFutureAndThenReturnedListOfFutureBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(any(Pageable.class), anyLong(), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.FUTURE), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "FUTURE");
 
@@ -407,10 +471,10 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByBookerWhenPositiveCaseAndStateIsWaitingAndThenReturnedListOfWaitingBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByBookerIdAndStatusEquals(MyPageRequest.of(0, 20), userId, BookingStatus.WAITING))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.WAITING), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "WAITING");
 
@@ -421,10 +485,10 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByBookerWhenPositiveCaseAndStateIsRejectedAndThenReturnedListOfRejectedBookings() {
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
-        List<Booking> bookings = List.of(booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByBookerIdAndStatusEquals(MyPageRequest.of(0, 20), userId, BookingStatus.REJECTED))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.BOOKER), eq(userId),
+                eq(State.REJECTED), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "REJECTED");
 
@@ -434,7 +498,6 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsByBookerWhenStateIsWrongAndThenThrowIllegalBookingStateException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         IllegalBookingStateException illegalBookingStateException = assertThrows(IllegalBookingStateException.class,
                 () -> bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "WRONG"));
 
@@ -443,7 +506,7 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsByBookerWhenOwnerIsNotValidAndThenNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingsByBooker(MyPageRequest.of(0, 20), userId, "ALL"));
 
@@ -454,10 +517,11 @@ class BookingServiceImplTest {
     void getBookingsByOwnerWhenPositiveCaseAndStateIsAllAndThenReturnedListOfAllBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdOrderByStartDesc(any(Pageable.class), anyLong()))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.ALL), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
 
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(Pageable.ofSize(20), userId, "ALL");
@@ -470,11 +534,11 @@ class BookingServiceImplTest {
     void getBookingsByOwnerWhenPositiveCaseAndStateIsCurrentAndThenReturnedListOfCurrentBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdAndStartIsBeforeAndEndIsAfter(any(Pageable.class), anyLong(),
-                any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.CURRENT), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "CURRENT");
 
@@ -487,10 +551,11 @@ class BookingServiceImplTest {
     void getBookingsByOwnerWhenPositiveCaseAndStateIsPASTAndThenReturnedListOfPASTBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdAndEndIsBefore(any(Pageable.class), anyLong(), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.PAST), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "PAST");
 
@@ -503,10 +568,11 @@ class BookingServiceImplTest {
     void getBookingsByOwnerWhenPositiveCaseAndStateIsFutureAndThenReturnedListOfFutureBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking, booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking),
+                BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(Pageable.class), anyLong(), any(LocalDateTime.class)))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.FUTURE), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "FUTURE");
 
@@ -518,10 +584,10 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByOwnerWhenPositiveCaseAndStateIsWaitingAndThenReturnedListOfWaitingBookings() {
         Booking booking = new Booking(bookingId, start, end, item, user, BookingStatus.WAITING);
-        List<Booking> bookings = List.of(booking);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdAndStatusEquals(MyPageRequest.of(0, 20), userId, BookingStatus.WAITING))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.WAITING), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "WAITING");
 
@@ -533,10 +599,10 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByOwnerWhenPositiveCaseAndStateIsRejectedAndThenReturnedListOfRejectedBookings() {
         Booking booking1 = new Booking(bookingId, start, end, item, user, BookingStatus.REJECTED);
-        List<Booking> bookings = List.of(booking1);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(booking1));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingsByItemOwnerIdAndStatusEquals(MyPageRequest.of(0, 20), userId, BookingStatus.REJECTED))
+        when(bookingRepository.findBookings(any(Pageable.class), eq(BookingRole.OWNER), eq(userId),
+                eq(State.REJECTED), eq(BookingCursor.FIRST), any(LocalDateTime.class)))
                 .thenReturn(bookings);
         List<BookingDto> bookings1 = bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "REJECTED");
 
@@ -545,9 +611,21 @@ class BookingServiceImplTest {
         assertEquals(bookings1.size(), 1);
     }
 
+    @Test
+    void getBookingsByOwnerWhenCursorIsGivenAndThenItIsPassedToQueryWithPageOfRequestedSize() {
+        BookingCursor cursor = new BookingCursor(start, bookingId);
+        List<BookingDto> bookings = List.of(BookingDtoMapper.toBookingDto(
+                new Booking(bookingId - 1, start, end, item, user, BookingStatus.WAITING)));
+        when(bookingRepository.findBookings(eq(PageRequest.ofSize(5)), eq(BookingRole.OWNER), eq(userId),
+                eq(State.WAITING), eq(cursor), any(LocalDateTime.class)))
+                .thenReturn(bookings);
+
+        assertEquals(bookings, bookingService.getBookingsByOwner(cursor, 5, userId, "WAITING"));
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
+    }
+
     @Test
     void getBookingsByOwnerWhenStateIsWrongAndThenThrowIllegalBookingStateException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         IllegalBookingStateException illegalBookingStateException = assertThrows(IllegalBookingStateException.class,
                 () -> bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "WRONG"));
 
@@ -556,10 +634,36 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsByOwnerWhenOwnerIsNotValidAndThenNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingsByOwner(MyPageRequest.of(0, 20), userId, "ALL"));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportBookingsByOwnerWhenPositiveCaseAndThenBookingsArePassedOnAndStreamIsClosed() {
+        BookingDto bookingDto = BookingDtoMapper.toBookingDto(new Booking(bookingId, start, end, item, user,
+                BookingStatus.APPROVED));
+        List<BookingDto> exported = new ArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookingRepository.streamOwnerBookings(ownerId))
+                .thenReturn(Stream.of(bookingDto).onClose(() -> closed.set(true)));
+
+        bookingService.exportBookingsByOwner(ownerId, exported::add);
+
+        assertEquals(List.of(bookingDto), exported);
+        assertTrue(closed.get());
+        verify(userExistenceValidator, times(1)).checkUserExists(ownerId);
+    }
+
+    @Test
+    void exportBookingsByBookerWhenUserNotFoundAndThenStreamIsNotOpened() {
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
+
+        assertThrows(NotFoundException.class, () -> bookingService.exportBookingsByBooker(userId, booking -> {
+        }));
+
+        verify(bookingRepository, never()).streamBookerBookings(userId);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dao.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "shareit.item-booking-summary.batch-size=1")
+@Import({ItemBookingSummaryServiceImpl.class, ItemBookingSummaryScheduler.class})
+@EnableConfigurationProperties(ItemBookingSummaryProperties.class)
+class ItemBookingSummaryServiceImplTest {
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+
+    @Autowired
+    private ItemBookingSummaryScheduler summaryScheduler;
+
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    public void setUp() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        booker = entityManager.persist(new User(null, "booker", "booker@email.com"));
+        item = entityManager.persist(new Item(null, "name", "description", Boolean.TRUE, owner, null));
+    }
+
+    @Test
+    void addApprovedBookingWhenBookingsAreApprovedOutOfOrderAndThenSummaryKeepsLatestPastAndNearestFuture() {
+        Booking past = approve(time.minusDays(5), time.minusDays(4));
+        Booking farFuture = approve(time.plusDays(10), time.plusDays(11));
+        Booking nearFuture = approve(time.plusDays(2), time.plusDays(3));
+        approve(time.minusDays(9), time.minusDays(8));
+        approve(time.plusDays(20), time.plusDays(21));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals(SummarizedBooking.of(past), summary.getLast());
+        assertEquals(SummarizedBooking.of(nearFuture), summary.getNext());
+        assertEquals(nearFuture.getStart(), summary.getRefreshAt());
+        assertNotEquals(farFuture.getId(), summary.getNext().getBookingId());
+    }
+
+    @Test
+    void addApprovedBookingWhenBookingIsCurrentAndThenSummaryIsRefreshedWhenItEnds() {
+        Booking current = approve(time.minusDays(1), time.plusDays(1));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+
+        assertNull(summary.getLast());
+        assertNull(summary.getNext());
+        assertEquals(current.getEnd(), summary.getRefreshAt());
+    }
+
+    @Test
+    void getSummaryWhenRowIsStaleAndThenNextBookingThatHasStartedIsNotReturned() {
+        Booking started = persistBooking(time.minusHours(1), time.plusDays(1), BookingStatus.APPROVED);
+        Booking following = persistBooking(time.plusDays(2), time.plusDays(3), BookingStatus.APPROVED);
+        entityManager.persist(new ItemBookingSummary(item.getId(), null, SummarizedBooking.of(started),
+                started.getStart()));
+
+        ItemBookingSummary summary = summaryService.getSummary(item.getId()).orElseThrow();
+
+        assertNull(summary.getLast());
+        assertEquals(SummarizedBooking.of(following), summary.getNext());
+        assertEquals(started.getEnd(), summary.getRefreshAt());
+    }
+
+    @Test
+    void getSummaryWhenItemHasNoApprovedBookingsAndThenReturnedEmpty() {
+        persistBooking(time.plusDays(2), time.plusDays(3), BookingStatus.WAITING);
+
+        assertTrue(summaryService.getSummary(item.getId()).isEmpty());
+    }
+
+    @Test
+    void refreshStaleSummariesWhenSeveralRowsAreStaleAndThenAllOfThemAreRolledForward() {
+        Item secondItem = entityManager.persist(new Item(null, "second", "description", Boolean.TRUE,
+                item.getOwner(), null));
+        Booking ended = persistBooking(time.minusDays(3), time.minusDays(1), BookingStatus.APPROVED);
+        entityManager.persist(new ItemBookingSummary(item.getId(), null, null, ended.getEnd()));
+        entityManager.persist(new ItemBookingSummary(secondItem.getId(), null, null, time.minusMinutes(1)));
+        entityManager.flush();
+
+        summaryScheduler.refreshStaleSummaries();
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(SummarizedBooking.of(ended), summary.getLast());
+        assertNull(summary.getRefreshAt());
+        assertNull(summaryRepository.findById(secondItem.getId()).orElseThrow().getRefreshAt());
+        assertTrue(summaryService.findStaleItemIds(10).isEmpty());
+    }
+
+    @Test
+    void refreshSummaryWhenLastBookingHasBeenArchivedAndThenStoredLastBookingIsKept() {
+        Booking next = persistBooking(time.plusDays(2), time.plusDays(3), BookingStatus.APPROVED);
+        SummarizedBooking archived = new SummarizedBooking(1000L, booker.getId(), time.minusYears(2),
+                time.minusYears(2).plusDays(1));
+        entityManager.persist(new ItemBookingSummary(item.getId(), archived, null, time.minusMinutes(1)));
+        entityManager.flush();
+
+        summaryService.refreshSummary(item.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(archived, summary.getLast());
+        assertEquals(SummarizedBooking.of(next), summary.getNext());
+    }
+
+    private Booking approve(LocalDateTime start, LocalDateTime end) {
+        Booking booking = persistBooking(start, end, BookingStatus.APPROVED);
+        entityManager.flush();
+        summaryService.addApprovedBooking(booking);
+        return booking;
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(new Booking(null, start, end, item, booker, status));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoFromRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class EntityCacheTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getUserByIdWhenUserIsCachedAndThenNoStatementIsPrepared() {
+        UserDto user = userService.saveUser(new UserDtoFromRequest("cached", "cached@email.com"));
+        userService.getUserById(user.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userService.getUserById(user.getId());
+
+        CacheRegionStatistics users = statistics.getDomainDataRegionStatistics("users");
+        assertEquals(1, users.getHitCount());
+        assertEquals(0, users.getMissCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "users", "result", "hit")
+                .functionCounter());
+        userService.deleteUser(user.getId());
+    }
+
+    @Test
+    void updateUserWhenUserIsCachedAndThenCachedUserIsUpdated() {
+        UserDto user = userService.saveUser(new UserDtoFromRequest("before", "before@email.com"));
+        userService.getUserById(user.getId());
+
+        userService.updateUser(new UserDtoFromRequest("after", null), user.getId());
+
+        assertEquals("after", userService.getUserById(user.getId()).getName());
+        userService.deleteUser(user.getId());
+    }
+
+    @Test
+    void deleteUserWhenOwnedItemIsCachedAndThenItemIsEvicted() {
+        UserDto owner = userService.saveUser(new UserDtoFromRequest("owner", "cached-owner@email.com"));
+        ItemDto item = itemService.saveItem(new ItemDtoFromRequest("name", "description", true, null),
+                owner.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        userService.deleteUser(owner.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", item.getId());
+    }
+}
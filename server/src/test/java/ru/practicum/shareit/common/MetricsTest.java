@@ -0,0 +1,55 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoFromRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Scrapes {@code /actuator/prometheus} after a request, as Prometheus would.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void scrapeWhenUserIsRequestedAndThenEndpointRepositoryAndPoolMetricsArePublished() throws Exception {
+        UserDto user = userService.saveUser(new UserDtoFromRequest("metrics", "metrics@email.com"));
+        mockMvc.perform(get("/users/{userId}", user.getId()))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertHasSample(scrape, "http_server_requests_seconds_bucket{", "uri=\"/users/{userId}\"");
+        assertHasSample(scrape, "spring_data_repository_invocations_seconds_bucket{",
+                "repository=\"UserRepository\"");
+        assertHasSample(scrape, "hikaricp_connections_active{", "application=\"shareit-server\"");
+        userService.deleteUser(user.getId());
+    }
+
+    private static void assertHasSample(String scrape, String metric, String tag) {
+        assertTrue(Arrays.stream(scrape.split("\n"))
+                .anyMatch(line -> line.startsWith(metric) && line.contains(tag)), metric + " with " + tag);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoFromRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the server against two H2 databases: reads through the services must come from the replica and
+ * writes must land on the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaConfigTest.PRIMARY_URL,
+        "shareit.read-replicas.enabled=true",
+        "shareit.read-replicas.instances[0].jdbc-url=" + ReadReplicaConfigTest.REPLICA_URL,
+        "shareit.read-replicas.lag-query=SELECT 0"
+})
+class ReadReplicaConfigTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:shareit-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    private static final DataSource REPLICA = new DriverManagerDataSource(REPLICA_URL);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA)
+                .locations("classpath:db/migration", "classpath:db/h2")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void getUserByIdWhenUserExistsOnlyOnReplicaAndThenItIsReadFromReplica() {
+        new JdbcTemplate(REPLICA).update(
+                "INSERT INTO users (user_id, name, email) VALUES (1000, 'replica', 'replica@email.com')");
+
+        UserDto user = userService.getUserById(1000L);
+
+        assertEquals("replica", user.getName());
+    }
+
+    @Test
+    void saveUserWhenUserIsSavedAndThenItIsWrittenToPrimaryOnly() {
+        UserDto user = userService.saveUser(new UserDtoFromRequest("primary", "primary@email.com"));
+
+        assertEquals(1, countUsers(primaryDataSource, user.getId()));
+        assertEquals(0, countUsers(REPLICA, user.getId()));
+    }
+
+    @Test
+    void getUserByIdWhenReplicaPoolIsStartedAndThenItsPoolMetricsArePublished() {
+        new JdbcTemplate(REPLICA).update(
+                "INSERT INTO users (user_id, name, email) VALUES (1001, 'pool', 'pool@email.com')");
+
+        userService.getUserById(1001L);
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.active")
+                .tag("pool", "shareit-replica-0")
+                .gauge());
+    }
+
+    private static int countUsers(DataSource dataSource, Long userId) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE user_id = ?", Integer.class, userId);
+    }
+}
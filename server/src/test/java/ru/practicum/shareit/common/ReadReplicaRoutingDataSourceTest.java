@@ -0,0 +1,130 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes between separate in-memory H2 databases; each one knows its own name, so a query shows where it ran.
+ */
+class ReadReplicaRoutingDataSourceTest {
+    private static final String WHERE_AM_I = "SELECT name FROM instance";
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private ReplicaLagMonitor monitor;
+
+    @AfterEach
+    public void tearDown() {
+        if (monitor != null) {
+            monitor.close();
+        }
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void getConnectionWhenTransactionIsReadOnlyAndThenReplicasTakeTurns() {
+        JdbcTemplate jdbcTemplate = routingTemplate(database("primary"), database("replica-1"),
+                database("replica-2"));
+        TransactionTemplate readOnly = transactionTemplate(jdbcTemplate, true);
+        TransactionTemplate readWrite = transactionTemplate(jdbcTemplate, false);
+
+        Set<String> readers = IntStream.range(0, 4)
+                .mapToObj(i -> readOnly.execute(status -> whereAmI(jdbcTemplate)))
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of("replica-1", "replica-2"), readers);
+        assertEquals("primary", readWrite.execute(status -> whereAmI(jdbcTemplate)));
+        assertEquals("primary", whereAmI(jdbcTemplate));
+    }
+
+    @Test
+    void getConnectionWhenReplicaLagsBehindAndThenReadsGoToPrimaryUntilItCatchesUp() {
+        HikariDataSource replica = database("replica");
+        JdbcTemplate jdbcTemplate = routingTemplate(database("primary"), replica);
+        TransactionTemplate readOnly = transactionTemplate(jdbcTemplate, true);
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 30");
+        monitor.checkReplicas();
+        assertEquals("primary", readOnly.execute(status -> whereAmI(jdbcTemplate)));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 1");
+        monitor.checkReplicas();
+        assertEquals("replica", readOnly.execute(status -> whereAmI(jdbcTemplate)));
+    }
+
+    @Test
+    void getConnectionWhenReplicaIsUnreachableAndThenReadsGoToPrimary() {
+        HikariDataSource unreachable = pool("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+        JdbcTemplate jdbcTemplate = routingTemplate(database("primary"), unreachable);
+
+        assertEquals("primary", transactionTemplate(jdbcTemplate, true).execute(status -> whereAmI(jdbcTemplate)));
+        assertTrue(monitor.nextReplica().isEmpty());
+    }
+
+    @Test
+    void getConnectionWhenCredentialsAreGivenAndThenTheyArePassedToTheChosenDataSource() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection("user", "password")).thenReturn(connection);
+        monitor = new ReplicaLagMonitor(List.of(), "SELECT seconds FROM replica_lag", Duration.ofSeconds(5));
+
+        assertSame(connection, new ReadReplicaRoutingDataSource(primary, monitor).getConnection("user", "password"));
+        verify(primary, never()).getConnection();
+    }
+
+    private JdbcTemplate routingTemplate(HikariDataSource primary, HikariDataSource... replicas) {
+        monitor = new ReplicaLagMonitor(List.of(replicas), "SELECT seconds FROM replica_lag", Duration.ofSeconds(5));
+        monitor.checkReplicas();
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, monitor)));
+    }
+
+    private TransactionTemplate transactionTemplate(JdbcTemplate jdbcTemplate, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate;
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = pool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE instance (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO instance VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO replica_lag VALUES (0)");
+        return dataSource;
+    }
+
+    private HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setMaximumPoolSize(2);
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+
+    private static String whereAmI(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject(WHERE_AM_I, String.class);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.sleuth.autoconfig.actuate.BufferingSpanReporter;
+import org.springframework.cloud.sleuth.exporter.FinishedSpan;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoFromRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends a request with the B3 headers the gateway adds and reads the spans back from the in-memory exporter.
+ */
+@SpringBootTest(properties = {
+        "management.endpoint.traces.enabled=true",
+        "shareit.tracing.log.enabled=true"
+})
+@AutoConfigureMockMvc
+class TracingTest {
+    private static final String TRACE_ID = "463ac35c9f6413ad48485a3953bb6124";
+    private static final String GATEWAY_SPAN_ID = "a2fb4a1d1a96d312";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BufferingSpanReporter spanReporter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void getItemByIdWhenTraceContextIsPropagatedAndThenServiceAndRepositorySpansJoinTheTrace() throws Exception {
+        UserDto owner = userService.saveUser(new UserDtoFromRequest("traced", "traced@email.com"));
+        ItemDto item = itemService.saveItem(new ItemDtoFromRequest("name", "description", Boolean.TRUE, null),
+                owner.getId());
+        spanReporter.drainFinishedSpans();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("X-B3-TraceId", TRACE_ID)
+                        .header("X-B3-SpanId", GATEWAY_SPAN_ID)
+                        .header("X-B3-Sampled", "1"))
+                .andExpect(status().isOk());
+
+        List<FinishedSpan> spans = spanReporter.drainFinishedSpans()
+                .stream()
+                .filter(span -> TRACE_ID.equals(span.getTraceId()))
+                .collect(Collectors.toList());
+        FinishedSpan request = findSpan(spans, "GET /items/{itemId}");
+        FinishedSpan service = findSpan(spans, "ItemServiceImpl.getItemByIdIfModified");
+        FinishedSpan repository = findSpan(spans, "ItemRepository.findById");
+
+        // the server side joins the gateway's client span, which Zipkin shows as one span with both timings
+        assertEquals(GATEWAY_SPAN_ID, request.getSpanId());
+        assertEquals(request.getSpanId(), service.getParentId());
+        assertEquals(service.getSpanId(), repository.getParentId());
+        userService.deleteUser(owner.getId());
+    }
+
+    private static FinishedSpan findSpan(List<FinishedSpan> spans, String name) {
+        return spans.stream()
+                .filter(span -> name.equals(span.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(name + " not in " + spans.stream()
+                        .map(FinishedSpan::getName)
+                        .collect(Collectors.toList())));
+    }
+}
@@ -12,14 +12,21 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +36,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -68,6 +78,29 @@ class ItemControllerTest {
         assertEquals(itemDto, itemDtoFromJson);
     }
 
+    @SneakyThrows
+    @Test
+    void importItemsWhenNdjsonIsPostedAndThenReturnedImportReport() {
+        ItemImportReport report = new ItemImportReport(1, 1, List.of(new ItemImportError(2, "item is missing")));
+        String body = objectMapper.writeValueAsString(new ItemImportRow(1L,
+                new ItemDtoFromRequest("name", "description", Boolean.TRUE, null))) + "\n{\"line\":2}\n";
+
+        when(itemImportService.importItems(any(), eq(userId))).thenReturn(report);
+
+        mockMvc.perform(post("/items/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .header(userHeader, userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("item is missing"));
+
+        verify(itemImportService, times(1)).importItems(any(), eq(userId));
+    }
+
     @SneakyThrows
     @Test
     void updateItemWhenPositiveCaseAndThenStatusIsOkAndReturnedItemDto() {
@@ -113,12 +146,14 @@ class ItemControllerTest {
         BookingShortDto bookingNext = createBookingShortDto(bookingNextId);
         ItemDetailedDto itemDetailedDto = createItemDetailedDto(bookingLast, bookingNext);
 
-        when(itemService.getItemById(itemId, userId)).thenReturn(itemDetailedDto);
+        when(itemService.getItemByIdIfModified(eq(itemId), eq(userId), any()))
+                .thenReturn(Optional.of(itemDetailedDto));
 
         String result = mockMvc.perform(get("/items/{itemId}", itemId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header(userHeader, userId))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Vary", userHeader))
                 .andExpect(content().json(objectMapper.writeValueAsString(itemDetailedDto)))
                 .andReturn()
                 .getResponse()
@@ -127,7 +162,46 @@ class ItemControllerTest {
         ItemDetailedDto itemDetailedDtoFromJson = objectMapper.readValue(result, ItemDetailedDto.class);
         assertEquals(itemDetailedDto, itemDetailedDtoFromJson);
 
-        verify(itemService, times(1)).getItemById(itemId, userId);
+        verify(itemService, times(1)).getItemByIdIfModified(eq(itemId), eq(userId), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void findItemByIdWhenETagDoesNotMatchAndThenStatusIsOkWithCurrentETag() {
+        ItemDetailedDto itemDetailedDto = createItemDetailedDto(null, null);
+
+        when(itemService.getItemByIdIfModified(eq(itemId), eq(userId), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<String> isNotModified = invocation.getArgument(2);
+                    assertFalse(isNotModified.test("5-1-2"));
+                    return Optional.of(itemDetailedDto);
+                });
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(userHeader, userId)
+                        .header("If-None-Match", "\"4-1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5-1-2\""))
+                .andExpect(jsonPath("$.id").value(itemDetailedDto.getId()));
+    }
+
+    @SneakyThrows
+    @Test
+    void findItemByIdWhenETagMatchesAndThenStatusIsNotModifiedWithoutBody() {
+        when(itemService.getItemByIdIfModified(eq(itemId), eq(userId), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<String> isNotModified = invocation.getArgument(2);
+                    assertTrue(isNotModified.test("5-1-2"));
+                    return Optional.empty();
+                });
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(userHeader, userId)
+                        .header("If-None-Match", "\"5-1-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"5-1-2\""))
+                .andExpect(header().string("Vary", userHeader))
+                .andExpect(content().string(""));
     }
 
     @SneakyThrows
@@ -4,10 +4,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -17,12 +23,15 @@ class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private long autoIncrementItemId = 1L;
     private long autoIncrementUserId = 1L;
 
     @AfterEach
     public void tearDown() {
-        itemRepository.deleteAll();
+        itemRepository.deleteAllInBatch();
     }
 
     @Test
@@ -38,16 +47,54 @@ class ItemRepositoryTest {
         assertEquals(savedItem, items.get(0));
     }
 
+    @Test
+    void findItemsByTextWhenTextMatchesDifferentFieldsAndThenReturnedRankedItems() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        Item inDescription = entityManager.persist(
+                new Item(null, "screwdriver", "works like a drill", Boolean.TRUE, owner, null));
+        Item nameContains = entityManager.persist(
+                new Item(null, "hammer drill", "desc", Boolean.TRUE, owner, null));
+        Item nameStarts = entityManager.persist(
+                new Item(null, "Drill cordless", "desc", Boolean.TRUE, owner, null));
+        Item nameEquals = entityManager.persist(
+                new Item(null, "drill", "desc", Boolean.TRUE, owner, null));
+        entityManager.persist(new Item(null, "drill", "desc", Boolean.FALSE, owner, null));
+
+        List<Item> items = itemRepository
+                .findItemsByText(MyPageRequest.of(0, 10), "DRILL");
+
+        assertEquals(List.of(nameEquals, nameStarts, nameContains, inDescription), items);
+    }
+
     @Test
     void findAllByOwnerId() {
         User user = new User(autoIncrementUserId++, "name", "e@email.com");
         Item item = new Item(autoIncrementItemId++, "name", "desc", Boolean.TRUE, user, null);
         Item savedItem = itemRepository.save(item);
 
-        List<Item> items = itemRepository
+        List<ItemDetailedDto> items = itemRepository
                 .findAllByOwnerId(MyPageRequest.of(0, 10), savedItem.getOwner().getId());
 
         assertEquals(items.size(), 1);
-        assertEquals(savedItem, items.get(0));
+        assertEquals(new ItemDetailedDto(savedItem.getId(), "name", "desc", Boolean.TRUE), items.get(0));
+    }
+
+    @Test
+    void findAllByRequestIdIn() {
+        User user = new User(autoIncrementUserId++, "name", "e@email.com");
+        User requester = new User(autoIncrementUserId++, "requester", "r@email.com");
+        ItemRequest request = new ItemRequest(1L, "description", requester, LocalDateTime.now());
+        Item item = new Item(autoIncrementItemId++, "name", "desc", Boolean.TRUE, user, request);
+        Item savedItem = itemRepository.save(item);
+        Long requestId = savedItem.getRequest().getId();
+
+        List<ItemDto> items = itemRepository
+                .findAllByRequestIdIn(List.of(requestId));
+        List<ItemDto> itemsOfOtherRequest = itemRepository
+                .findAllByRequestIdIn(List.of(requestId + 1));
+
+        assertEquals(items.size(), 1);
+        assertEquals(ItemDtoMapper.toItemDto(savedItem), items.get(0));
+        assertEquals(itemsOfOtherRequest.size(), 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryServiceImpl;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction so every batch commits or rolls back on its own, the way it does
+ * behind the import endpoint.
+ */
+@DataJpaTest(properties = {"shareit.item-import.batch-size=2", "shareit.item-import.max-reported-errors=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ItemImportServiceImpl.class, ItemServiceImpl.class, ItemBookingSummaryServiceImpl.class,
+        UserExistenceValidator.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@EnableConfigurationProperties(ItemImportProperties.class)
+class ItemImportServiceImplTest {
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long ownerId;
+
+    @BeforeEach
+    public void setUp() {
+        ownerId = userRepository.save(new User(null, "owner", "owner@email.com")).getId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        itemRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importItemsWhenSomeRowsAreBadAndThenGoodRowsAreSavedAndBadRowsReported() {
+        String upload = String.join("\n",
+                row(1, "first"),
+                row(2, "second"),
+                "{not json",
+                "",
+                "{\"line\":5}",
+                row(6, "third"),
+                row(7, "x".repeat(100)),
+                row(8, "fourth"));
+
+        ItemImportReport report = itemImportService.importItems(new StringReader(upload), ownerId);
+
+        assertEquals(4, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(3L, 5L), report.getErrors().stream()
+                .map(ItemImportError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals("item is missing", report.getErrors().get(1).getMessage());
+        assertEquals(List.of("first", "second", "third", "fourth"), itemRepository.findAll(Sort.by("id")).stream()
+                .map(Item::getName)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void importItemsWhenRequestDoesNotExistAndThenOnlyThatRowIsRejected() {
+        String upload = String.join("\n",
+                row(1, "first"),
+                line(2, new ItemDtoFromRequest("second", "description", Boolean.TRUE, Long.MAX_VALUE)));
+
+        ItemImportReport report = itemImportService.importItems(new StringReader(upload), ownerId);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(2L, report.getErrors().get(0).getLine());
+        assertEquals(1, itemRepository.count());
+    }
+
+    @Test
+    void importItemsWhenUploadIsLargerThanBatchAndThenAllRowsAreSaved() {
+        String upload = IntStream.rangeClosed(1, 11)
+                .mapToObj(i -> row(i, "name" + i))
+                .collect(Collectors.joining("\n"));
+
+        ItemImportReport report = itemImportService.importItems(new StringReader(upload), ownerId);
+
+        assertEquals(11, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getErrors().isEmpty());
+        assertEquals(11, itemRepository.count());
+    }
+
+    @Test
+    void importItemsWhenUserNotFoundAndThenThrowNotFoundException() {
+        StringReader upload = new StringReader(row(1, "name"));
+
+        assertThrows(NotFoundException.class, () -> itemImportService.importItems(upload, ownerId + 1));
+        assertEquals(0, itemRepository.count());
+    }
+
+    private String row(long line, String name) {
+        return line(line, new ItemDtoFromRequest(name, "description", Boolean.TRUE, null));
+    }
+
+    @SneakyThrows
+    private String line(long line, ItemDtoFromRequest item) {
+        return objectMapper.writeValueAsString(new ItemImportRow(line, item));
+    }
+}
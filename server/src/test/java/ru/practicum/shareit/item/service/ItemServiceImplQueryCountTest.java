@@ -0,0 +1,160 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryServiceImpl;
+import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoFromRequest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemServiceImpl.class, ItemBookingSummaryServiceImpl.class, UserExistenceValidator.class})
+class ItemServiceImplQueryCountTest {
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static final int BULK_SIZE = 120;
+
+    private final LocalDateTime time = LocalDateTime.now();
+    private User owner;
+
+    @BeforeEach
+    public void setUp() {
+        owner = entityManager.persist(new User(null, "owner", "owner@email.com"));
+        User booker = entityManager.persist(new User(null, "booker", "booker@email.com"));
+
+        for (int i = 0; i < 10; i++) {
+            Item item = entityManager.persist(new Item(null, "name" + i, "description", Boolean.TRUE, owner, null));
+            entityManager.persist(new Booking(null, time.minusDays(5), time.minusDays(4), item, booker,
+                    BookingStatus.APPROVED));
+            entityManager.persist(new Booking(null, time.plusDays(4), time.plusDays(5), item, booker,
+                    BookingStatus.APPROVED));
+            entityManager.persist(new Comment(null, "text", item, booker, time.minusDays(3)));
+            entityManager.flush();
+            itemBookingSummaryService.refreshSummary(item.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getUserItemsByIdWhenPageSizeGrowsAndThenQueryCountStaysConstant() {
+        long smallPageQueries = countQueries(2);
+        long largePageQueries = countQueries(10);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void getUserItemsByIdWhenBookingsAndCommentsExistAndThenReturnedThemForEveryItem() {
+        List<ItemDetailedDto> items = itemService.getUserItemsById(MyPageRequest.of(0, 10), owner.getId());
+
+        assertEquals(10, items.size());
+        for (ItemDetailedDto item : items) {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertTrue(item.getLastBooking().getEnd().isBefore(time));
+            assertTrue(item.getNextBooking().getStart().isAfter(time));
+            assertEquals(1, item.getComments().size());
+        }
+    }
+
+    @Test
+    void saveItemsWhenManyItemsAreSavedAndThenInsertsAreSentInBatches() {
+        List<ItemDtoFromRequest> itemDtos = IntStream.range(0, BULK_SIZE)
+                .mapToObj(i -> new ItemDtoFromRequest("bulk" + i, "description", Boolean.TRUE, null))
+                .collect(Collectors.toList());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> items = itemService.saveItems(itemDtos, owner.getId());
+        entityManager.flush();
+
+        assertEquals(BULK_SIZE, items.size());
+        assertTrue(items.stream().allMatch(item -> item.getId() != null));
+        assertEquals(2 * BULK_SIZE, statistics.getEntityInsertCount(), "an item and its revision row each");
+        assertTrue(statistics.getPrepareStatementCount() < 10,
+                "inserts were not batched: " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void getItemByIdIfModifiedWhenItemIsUpdatedOrCommentedAndThenETagChanges() {
+        ItemDto item = itemService.saveItem(new ItemDtoFromRequest("drill", "cordless", Boolean.TRUE, null),
+                owner.getId());
+        String savedETag = currentETag(item.getId());
+
+        itemService.updateItem(new ItemDtoFromRequest(null, "corded", null, null), item.getId(), owner.getId());
+        String updatedETag = currentETag(item.getId());
+
+        assertNotEquals(savedETag, updatedETag);
+        assertEquals(updatedETag, currentETag(item.getId()));
+    }
+
+    @Test
+    void getItemByIdIfModifiedWhenETagMatchesAndThenOnlyItemRevisionAndSummaryAreRead() {
+        ItemDto item = itemService.saveItem(new ItemDtoFromRequest("drill", "cordless", Boolean.TRUE, null),
+                owner.getId());
+        String eTag = currentETag(item.getId());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(itemService.getItemByIdIfModified(item.getId(), owner.getId(), eTag::equals).isEmpty());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private String currentETag(Long itemId) {
+        entityManager.flush();
+        List<String> eTags = new ArrayList<>();
+        itemService.getItemByIdIfModified(itemId, owner.getId(), eTag -> {
+            eTags.add(eTag);
+            return false;
+        });
+        assertEquals(1, eTags.size());
+        return eTags.get(0);
+    }
+
+    private long countQueries(int size) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDetailedDto> items = itemService.getUserItemsById(MyPageRequest.of(0, size), owner.getId());
+
+        assertEquals(size, items.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -10,23 +10,30 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemRevisionRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.exception.IncorrectParameterException;
 import ru.practicum.shareit.item.exception.NoValidUserToCommentException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRevisionRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,15 +49,27 @@ class ItemServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceValidator userExistenceValidator;
+
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
     @Mock
     private CommentRepository commentRepository;
 
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemRevisionRepository itemRevisionRepository;
+
+    @Mock
+    private ItemRequestRevisionRepository itemRequestRevisionRepository;
+
     private LocalDateTime start;
     private LocalDateTime end;
     private Long bookingLastId;
@@ -123,6 +142,17 @@ class ItemServiceImplTest {
         verify(itemRepository, times(0)).save(item);
     }
 
+    @Test
+    void saveItemsWhenUserNotFoundAndThenThrowNotFoundException() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> itemService.saveItems(List.of(itemDtoFromRequest, itemDtoFromRequest), userId));
+
+        verify(userRepository, times(1)).findById(userId);
+        verify(itemRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void saveItemWhenItemRequestExistsAndThenSaveItemAndReturnedItemDtoWithItemRequest() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
@@ -142,11 +172,12 @@ class ItemServiceImplTest {
         assertEquals(itemDto.getAvailable(), item.getIsAvailable());
 
         verify(userRepository, times(1)).findById(userId);
+        verify(itemRevisionRepository, times(1)).save(any());
+        verify(itemRequestRevisionRepository, times(1)).incrementRevisions(Set.of(itemRequestId));
     }
 
     @Test
     void updateItemWhenPositiveCaseAndThenUpdateItemAndReturnedItemDto() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         Item item = ItemDtoMapper.toItemFromDto(itemDtoFromRequest);
         when(itemRepository.save(item)).thenReturn(new Item());
@@ -159,34 +190,34 @@ class ItemServiceImplTest {
         assertEquals(itemDto.getDescription(), item.getDescription());
         assertEquals(itemDto.getAvailable(), item.getIsAvailable());
 
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRepository, times(1)).findById(itemId);
         verify(itemRepository, times(1)).save(item);
+        verify(itemRevisionRepository, times(1)).incrementRevision(itemId);
     }
 
     @Test
     void updateItemWhenUserNotFoundAndThenThrowNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.updateItem(itemDtoFromRequest, itemId, userId));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRepository, times(0)).findById(itemId);
         verify(itemRepository, times(0)).save(item);
     }
 
     @Test
     void updateItemWhenItemNotFoundAndThenThrowNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.updateItem(itemDtoFromRequest, itemId, userId));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRepository, times(1)).findById(itemId);
         verify(itemRepository, times(0)).save(item);
     }
@@ -195,14 +226,13 @@ class ItemServiceImplTest {
     void updateItemWhenOwnerNotValidForItemAndThenThrowNotFoundException() {
         User owner = new User(2L, "name", "wrqe@email.com");
         Item itemWithWrongOwner = new Item(itemId, "name", "description", Boolean.TRUE, owner, null);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(itemWithWrongOwner));
 
         IncorrectParameterException incorrectParameterException = assertThrows(IncorrectParameterException.class,
                 () -> itemService.updateItem(itemDtoFromRequest, itemId, userId));
 
         assertEquals(IncorrectParameterException.class, incorrectParameterException.getClass());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRepository, times(1)).findById(itemId);
         verify(itemRepository, times(0)).save(item);
     }
@@ -218,10 +248,9 @@ class ItemServiceImplTest {
         List<Comment> comments = List.of(createComment());
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(commentRepository.findAllByItemIdOrderByCreatedDesc(itemId)).thenReturn(comments);
-        when(bookingRepository.findFirstByItemIdAndEndIsBeforeOrderByEndDesc(anyLong(), any()))
-                .thenReturn(Optional.of(createBooking(bookingLastId)));
-        when(bookingRepository.findFirstByItemIdAndStartIsAfter(anyLong(), any()))
-                .thenReturn(Optional.of(createBooking(bookingNextId)));
+        when(itemBookingSummaryService.getSummary(itemId)).thenReturn(Optional.of(new ItemBookingSummary(itemId,
+                SummarizedBooking.of(createBooking(bookingLastId)), SummarizedBooking.of(createBooking(bookingNextId)),
+                start)));
         ItemDetailedDto itemDetailedDto = itemService.getItemById(itemId, userId);
 
         assertNotNull(item);
@@ -241,8 +270,6 @@ class ItemServiceImplTest {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(itemWithWrongOwner));
         when(commentRepository.findAllByItemIdOrderByCreatedDesc(itemId)).thenReturn(comments);
 
-        bookingRepository.findFirstByItemIdAndEndIsBeforeOrderByEndDesc(itemId, start);
-        bookingRepository.findFirstByItemIdAndStartIsAfter(itemId, start);
         ItemDetailedDto itemDetailedDto = itemService.getItemById(itemId, userId);
 
         assertNotNull(itemDetailedDto);
@@ -251,11 +278,40 @@ class ItemServiceImplTest {
         assertEquals(item.getId(), itemDetailedDto.getId());
         assertNull(itemDetailedDto.getLastBooking());
         assertNull(itemDetailedDto.getNextBooking());
+        verify(itemBookingSummaryService, never()).getSummary(any());
+    }
+
+    @Test
+    void getItemByIdIfModifiedWhenOwnerETagMatchesAndThenCommentsAreNotRead() {
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRevisionRepository.findRevision(itemId)).thenReturn(Optional.of(3L));
+        when(itemBookingSummaryService.getSummary(itemId)).thenReturn(Optional.of(new ItemBookingSummary(itemId,
+                SummarizedBooking.of(createBooking(bookingLastId)), null, null)));
+
+        Optional<ItemDetailedDto> itemDetailedDto = itemService.getItemByIdIfModified(itemId, userId,
+                ("3-" + bookingLastId + "-0")::equals);
+
+        assertTrue(itemDetailedDto.isEmpty());
+        verify(commentRepository, never()).findAllByItemIdOrderByCreatedDesc(any());
+    }
+
+    @Test
+    void getItemByIdIfModifiedWhenOwnerETagIsSentByOtherUserAndThenItemIsReturned() {
+        User owner = new User(2L, "name", "wrqe@email.com");
+        Item itemWithOtherOwner = new Item(itemId, "name", "description", Boolean.TRUE, owner, null);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(itemWithOtherOwner));
+        when(itemRevisionRepository.findRevision(itemId)).thenReturn(Optional.of(3L));
+
+        Optional<ItemDetailedDto> itemDetailedDto = itemService.getItemByIdIfModified(itemId, userId,
+                "3-0-0"::equals);
+
+        assertTrue(itemDetailedDto.isPresent());
+        verify(commentRepository, times(1)).findAllByItemIdOrderByCreatedDesc(itemId);
     }
 
     @Test
     void getUserItemsByIdWhenPositiveCaseAndReturnedListOfItemDetailedDto() {
-        List<Item> items = List.of(item);
+        List<ItemDetailedDto> items = List.of(ItemDtoMapper.toItemDetailedDto(item, List.of()));
         when(itemRepository.findAllByOwnerId(pageable, userId)).thenReturn(items);
 
         List<ItemDetailedDto> itemDetailedDto = itemService.getUserItemsById(pageable, userId);
@@ -347,6 +403,7 @@ class ItemServiceImplTest {
         verify(userRepository, times(1)).findById(anyLong());
         verify(itemRepository, times(1)).findById(anyLong());
         verify(commentRepository, times(1)).save(any());
+        verify(itemRevisionRepository, times(1)).incrementRevision(itemId);
     }
 
     @Test
@@ -364,6 +421,23 @@ class ItemServiceImplTest {
         verify(commentRepository, times(0)).save(any());
     }
 
+    @Test
+    void addCommentToItemWhenBookingIsArchivedAndThenCommentIsSaved() {
+        CommentDtoFromRequest commentDtoFromRequest = new CommentDtoFromRequest("text");
+        Comment comment = CommentDtoMapper.toComment(commentDtoFromRequest, item, user);
+
+        when(bookingRepository.existsByBookerIdAndItemIdAndEndIsBefore(anyLong(), anyLong(), any())).thenReturn(Boolean.FALSE);
+        when(bookingRepository.existsArchivedBooking(userId, itemId)).thenReturn(Boolean.TRUE);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(commentRepository.save(any())).thenReturn(comment);
+
+        CommentDto commentDto = itemService.addCommentToItem(userId, itemId, commentDtoFromRequest);
+
+        assertEquals(comment.getText(), commentDto.getText());
+        verify(commentRepository, times(1)).save(any());
+    }
+
     private Booking createBooking(Long bookingId) {
         Booking booking = new Booking();
         booking.setId(bookingId);
@@ -25,11 +25,18 @@ import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -158,8 +165,8 @@ class ItemRequestControllerTest {
         ItemDto itemDto = ItemDtoMapper.toItemDto(item);
         ItemRequestDto itemRequestDto = ItemRequestDtoMapper.toDto(itemRequest, List.of(itemDto));
 
-        when(itemRequestService.getRequestById(itemRequestId, userId))
-                .thenReturn(itemRequestDto);
+        when(itemRequestService.getRequestByIdIfModified(eq(itemRequestId), eq(userId), any()))
+                .thenReturn(Optional.of(itemRequestDto));
 
         String result = mockMvc.perform(get("/requests/{requestId}", itemRequestId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -177,6 +184,27 @@ class ItemRequestControllerTest {
         assertEquals(itemRequestDto, itemRequestDtoFromJson);
     }
 
+    @SneakyThrows
+    @Test
+    void getItemRequestByIdWhenETagMatchesAndThenStatusIsNotModifiedWithoutBody() {
+        Long userId = 1L;
+        Long itemRequestId = 1L;
+
+        when(itemRequestService.getRequestByIdIfModified(eq(itemRequestId), eq(userId), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<String> isNotModified = invocation.getArgument(2);
+                    assertTrue(isNotModified.test("3"));
+                    return Optional.empty();
+                });
+
+        mockMvc.perform(get("/requests/{requestId}", itemRequestId)
+                        .header(userHeader, userId)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
     private ItemRequestDto getItemRequestDto(ItemRequestDtoFromRequest itemRequestDtoFromRequest, Long itemRequestId) {
         ItemRequestDto itemRequestDto = new ItemRequestDto();
         itemRequestDto.setId(itemRequestId);
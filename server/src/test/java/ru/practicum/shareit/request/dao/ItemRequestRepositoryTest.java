@@ -5,10 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import ru.practicum.shareit.common.MyPageRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,7 +23,7 @@ class ItemRequestRepositoryTest {
     ItemRequestRepository itemRequestRepository;
 
     private final  User requester = new User(1L, "name", "e@email.com");
-    private final LocalDateTime time = LocalDateTime.now();
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     private long autoIncrementId = 1L;
 
     @AfterEach
@@ -32,11 +36,11 @@ class ItemRequestRepositoryTest {
         ItemRequest itemRequest = new ItemRequest(autoIncrementId++, "description", requester, time);
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
 
-        List<ItemRequest> requests = itemRequestRepository
+        List<ItemRequestDto> requests = itemRequestRepository
                 .findAllByRequesterId(savedRequest.getRequester().getId());
 
         assertEquals(requests.size(), 1);
-        assertEquals(savedRequest, requests.get(0));
+        assertEquals(ItemRequestDtoMapper.toDto(savedRequest, new ArrayList<>()), requests.get(0));
     }
 
     @Test
@@ -44,10 +48,10 @@ class ItemRequestRepositoryTest {
         ItemRequest itemRequest1 = new ItemRequest(autoIncrementId++, "description2", requester, time);
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest1);
 
-        List<ItemRequest> requests = itemRequestRepository
+        List<ItemRequestDto> requests = itemRequestRepository
                 .findAllByRequesterIdNot(MyPageRequest.of(0, 10), 1L);
 
         assertEquals(requests.size(), 1);
-        assertEquals(savedRequest, requests.get(0));
+        assertEquals(ItemRequestDtoMapper.toDto(savedRequest, new ArrayList<>()), requests.get(0));
     }
 }
\ No newline at end of file
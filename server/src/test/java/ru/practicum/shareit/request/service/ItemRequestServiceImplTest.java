@@ -8,7 +8,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRevisionRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFromRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDtoMapper;
@@ -16,7 +18,9 @@ import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,12 +35,18 @@ class ItemRequestServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceValidator userExistenceValidator;
+
     @Mock
     private ItemRepository itemRepository;
 
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemRequestRevisionRepository itemRequestRevisionRepository;
+
     private final Long userId = 1L;
     private User user = new User(userId, "name", "e@email.com");
     private final Long itemRequestId = 1L;
@@ -59,6 +69,7 @@ class ItemRequestServiceImplTest {
 
         verify(userRepository, times(2)).findById(userId);
         verify(itemRequestRepository, times(1)).save(itemRequest);
+        verify(itemRequestRevisionRepository, times(1)).save(any());
     }
 
     @Test
@@ -79,25 +90,24 @@ class ItemRequestServiceImplTest {
     void getUserRequestWhenPositiveCaseAndThenReturnedListOfItemRequestDto() {
         ItemRequestDtoFromRequest itemRequestDtoFromRequest = new ItemRequestDtoFromRequest("description");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         ItemRequest itemRequest = ItemRequestDtoMapper.toItemRequest(itemRequestDtoFromRequest, user);
-        List<ItemRequest> itemRequests = List.of(itemRequest);
+        List<ItemRequestDto> itemRequests = List.of(ItemRequestDtoMapper.toDto(itemRequest));
 
         when(itemRequestRepository.findAllByRequesterId(userId)).thenReturn(itemRequests);
         List<ItemRequestDto> itemRequestDtos = itemRequestService.getUserRequest(userId);
 
         assertEquals(itemRequestDtos.size(), 1);
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
     }
 
     @Test
     void getUserRequestWhenUserNotExistsAndThenThrowNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> itemRequestService.getUserRequest(userId));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRequestRepository, times(0)).findAllByRequesterId(userId);
     }
 
@@ -105,7 +115,6 @@ class ItemRequestServiceImplTest {
     void getRequestByIdWhenPositiveCaseAndThenReturnedItemRequestDto() {
         ItemRequestDtoFromRequest itemRequestDtoFromRequest = new ItemRequestDtoFromRequest("description");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         ItemRequest itemRequest = ItemRequestDtoMapper.toItemRequest(itemRequestDtoFromRequest, user);
         itemRequest.setId(1L);
 
@@ -114,31 +123,39 @@ class ItemRequestServiceImplTest {
 
         assertEquals(itemRequestDto.getId(), itemRequest.getId());
         assertEquals(itemRequestDto.getDescription(), itemRequest.getDescription());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
+    }
+
+    @Test
+    void getRequestByIdIfModifiedWhenETagMatchesAndThenItemsAreNotRead() {
+        ItemRequest itemRequest = new ItemRequest(itemRequestId, "description", user, LocalDateTime.now());
+
+        when(itemRequestRepository.findById(itemRequestId)).thenReturn(Optional.of(itemRequest));
+        when(itemRequestRevisionRepository.findRevision(itemRequestId)).thenReturn(Optional.of(2L));
+
+        assertTrue(itemRequestService.getRequestByIdIfModified(itemRequestId, userId, "2"::equals).isEmpty());
+        verify(itemRepository, never()).findAllByRequestIdIn(any());
     }
 
     @Test
     void getRequestByIdWhenUserNotExistsAndThenThrowNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("user not found")).when(userExistenceValidator).checkUserExists(userId);
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> itemRequestService.getRequestById(itemRequestId, userId));
 
         assertEquals(NotFoundException.class, notFoundException.getClass());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRequestRepository, times(0)).findById(itemRequestId);
     }
 
     @Test
     void getRequestByIdWhenItemRequestNotExistsAndThenThrowItemRequestNotFoundException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        user = userRepository.findById(userId).get();
-
         when(itemRequestRepository.findById(itemRequestId)).thenReturn(Optional.empty());
         ItemRequestNotFoundException itemRequestNotFoundException = assertThrows(ItemRequestNotFoundException.class,
                 () -> itemRequestService.getRequestById(itemRequestId, userId));
 
         assertEquals(ItemRequestNotFoundException.class, itemRequestNotFoundException.getClass());
-        verify(userRepository, times(2)).findById(userId);
+        verify(userExistenceValidator, times(1)).checkUserExists(userId);
         verify(itemRequestRepository, times(1)).findById(itemRequestId);
     }
 
@@ -147,7 +164,7 @@ class ItemRequestServiceImplTest {
         ItemRequestDtoFromRequest itemRequestDtoFromRequest = new ItemRequestDtoFromRequest("description");
 
         ItemRequest itemRequest = ItemRequestDtoMapper.toItemRequest(itemRequestDtoFromRequest, user);
-        List<ItemRequest> itemRequests = List.of(itemRequest);
+        List<ItemRequestDto> itemRequests = List.of(ItemRequestDtoMapper.toDto(itemRequest));
 
         when(itemRequestRepository.findAllByRequesterIdNot(MyPageRequest.of(0, 10), userId)).thenReturn(itemRequests);
         List<ItemRequestDto> itemRequestDtos = itemRequestService.getAllRequests(MyPageRequest.of(0, 10), userId);
@@ -156,4 +173,23 @@ class ItemRequestServiceImplTest {
         assertEquals(itemRequestDtos.get(0).getId(), itemRequests.get(0).getId());
         assertEquals(itemRequestDtos.get(0).getDescription(), itemRequests.get(0).getDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRequestsWhenItemsAnswerRequestsAndThenReturnedOnlyItemsOfEachRequest() {
+        ItemRequestDto firstRequest = new ItemRequestDto(1L, "first", null);
+        ItemRequestDto secondRequest = new ItemRequestDto(2L, "second", null);
+        ItemDto firstItem = new ItemDto(1L, "name", "description", Boolean.TRUE, firstRequest.getId());
+        ItemDto secondItem = new ItemDto(2L, "name", "description", Boolean.TRUE, firstRequest.getId());
+
+        when(itemRequestRepository.findAllByRequesterIdNot(MyPageRequest.of(0, 10), userId))
+                .thenReturn(List.of(firstRequest, secondRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(1L, 2L))).thenReturn(List.of(firstItem, secondItem));
+        List<ItemRequestDto> itemRequestDtos = itemRequestService.getAllRequests(MyPageRequest.of(0, 10), userId);
+
+        assertEquals(2, itemRequestDtos.size());
+        assertEquals(2, itemRequestDtos.get(0).getItems().size());
+        assertEquals(0, itemRequestDtos.get(1).getItems().size());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(List.of(1L, 2L));
+        verify(itemRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceValidatorTest {
+    @InjectMocks
+    private UserExistenceValidator userExistenceValidator;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private final Long userId = 1L;
+
+    @BeforeEach
+    public void setUp() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+    }
+
+    @Test
+    void checkUserExistsWhenUserIsCachedAndThenDatabaseIsNotQueried() {
+        when(cache.contains(User.class, userId)).thenReturn(true);
+
+        userExistenceValidator.checkUserExists(userId);
+
+        verify(userRepository, times(0)).existsById(userId);
+        verify(userRepository, times(0)).findById(userId);
+    }
+
+    @Test
+    void checkUserExistsWhenUserIsNotCachedAndThenExistenceIsQueried() {
+        when(cache.contains(User.class, userId)).thenReturn(false);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        userExistenceValidator.checkUserExists(userId);
+
+        verify(userRepository, times(1)).existsById(userId);
+        verify(userRepository, times(0)).findById(userId);
+    }
+
+    @Test
+    void checkUserExistsWhenUserNotExistsAndThenThrowNotFoundException() {
+        when(cache.contains(User.class, userId)).thenReturn(false);
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> userExistenceValidator.checkUserExists(userId));
+
+        assertEquals(String.format("user with id=%d not found", userId), notFoundException.getMessage());
+    }
+}
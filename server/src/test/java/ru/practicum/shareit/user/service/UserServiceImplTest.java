@@ -5,12 +5,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.common.EntityCacheEvictor;
 import ru.practicum.shareit.common.MyPageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dao.ItemRevisionRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.dto.UserDtoFromRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -30,12 +34,17 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Mock
+    private ItemRevisionRepository itemRevisionRepository;
+
     @Test
     void getAllUsersTestWhenInvokedAndThanReturnListOfUser() {
         User user = new User(1L, "name", "e@email.com");
-        PageImpl<User> users = new PageImpl<>(Collections.singletonList(user));
-        when(userRepository.findAll(any(Pageable.class)))
-                .thenReturn(users);
+        when(userRepository.findAllUserDtos(any(Pageable.class)))
+                .thenReturn(Collections.singletonList(UserDtoMapper.toUserDto(user)));
 
         List<UserDto> usersFromService = userService.getAllUsers(MyPageRequest.of(0, 20));
         assertEquals(1, usersFromService.size());
@@ -94,6 +103,26 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void saveUsersWhenPositiveCaseAndThenSavedAllInOneCall() {
+        User firstUser = new User(1L, "first", "first@email.com");
+        User secondUser = new User(2L, "second", "second@email.com");
+        UserDtoFromRequest firstDto = new UserDtoFromRequest();
+        UserDtoFromRequest secondDto = new UserDtoFromRequest();
+
+        firstDto.setName(firstUser.getName());
+        firstDto.setEmail(firstUser.getEmail());
+        secondDto.setName(secondUser.getName());
+        secondDto.setEmail(secondUser.getEmail());
+        when(userRepository.saveAll(anyList()))
+                .thenReturn(List.of(firstUser, secondUser));
+        List<UserDto> userDtos = userService.saveUsers(List.of(firstDto, secondDto));
+
+        assertEquals(List.of(UserDtoMapper.toUserDto(firstUser), UserDtoMapper.toUserDto(secondUser)), userDtos);
+        verify(userRepository, times(1)).saveAll(anyList());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void updateUserWhenPositiveCaseAndThenReturnedUpdatedUser() {
         long userId = 1L;
@@ -116,6 +145,19 @@ class UserServiceImplTest {
         assertEquals(user.getEmail(), userDto.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
         verify(userRepository, times(1)).findById(userId);
+        verify(itemRevisionRepository, never()).incrementRevisionsCommentedBy(userId);
+    }
+
+    @Test
+    void updateUserWhenNameChangesAndThenRevisionsOfCommentedItemsAreIncremented() {
+        long userId = 1L;
+        User user = new User(userId, "name", "e@email.com");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateUser(new UserDtoFromRequest("new name", null), userId);
+
+        verify(itemRevisionRepository, times(1)).incrementRevisionsCommentedBy(userId);
     }
 
     @Test
@@ -134,5 +176,7 @@ class UserServiceImplTest {
     void deleteUser() {
         userService.deleteUser(1L);
         verify(userRepository, times(1)).deleteById(1L);
+        verify(itemRevisionRepository, times(1)).incrementRevisionsCommentedBy(1L);
+        verify(entityCacheEvictor, times(1)).evictAfterCommit(Item.class, ItemRequest.class);
     }
 }
\ No newline at end of file